@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combines the index and the outputs listed in it which the UI needs for the first render into
+ * a single file, so that they can be fetched with one request.
+ */
+public class BootBundle {
+    public static final String NAME = "bootBundle";
+    public static final String PREFIX = "boot-bundle";
+    private final ObjectMapper jsonMapper;
+    private final Path outputDir;
+    private final List<String> catalogNames;
+    private final List<String> schemaNames;
+    private final List<String> missing = new ArrayList<>();
+
+    /**
+     * @param jsonMapper
+     * @param outputDir the directory the outputs listed in the index are in
+     * @param catalogNames the catalogs to embed, by their name in the index
+     * @param schemaNames the schemas to embed, by their name in the index
+     */
+    public BootBundle(ObjectMapper jsonMapper, Path outputDir, List<String> catalogNames, List<String> schemaNames) {
+        this.jsonMapper = jsonMapper;
+        this.outputDir = outputDir;
+        this.catalogNames = catalogNames;
+        this.schemaNames = schemaNames;
+    }
+
+    /**
+     * Write the bundle into {@code boot-bundle-<hash>.json} and delete the previous ones. The index
+     * is embedded as it is, so it is expected to be final but for the entry of the bundle itself.
+     * @param fileWriter
+     * @param index
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String write(HashedFileWriter fileWriter, Index index) throws Exception {
+        missing.clear();
+        var bundle = jsonMapper.createObjectNode();
+        bundle.set("index", jsonMapper.valueToTree(index));
+        var catalogs = bundle.putObject("catalogs");
+        for (var name : catalogNames) {
+            addEntry(catalogs, name, index.getCatalogs().get(name));
+        }
+        var schemas = bundle.putObject("schemas");
+        for (var name : schemaNames) {
+            addEntry(schemas, name, index.getSchemas().get(name));
+        }
+        var outputFileName = fileWriter.write(PREFIX, bundle);
+        fileWriter.deleteStale(PREFIX, ".json", outputFileName);
+        return outputFileName;
+    }
+
+    /**
+     * The names of the catalogs and schemas which were not in the index when the bundle was last
+     * written, and so are not in it.
+     * @return
+     */
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    private void addEntry(ObjectNode target, String name, Entry entry) throws Exception {
+        if (entry == null) {
+            missing.add(name);
+            return;
+        }
+        target.set(name, jsonMapper.readTree(outputDir.resolve(entry.file()).toFile()));
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+record StageRecord(String fingerprint, Map<String, Entry> catalogs, Map<String, Entry> schemas, Set<String> referencedFiles) {
+    StageRecord {
+        // not present in the manifests of older versions
+        referencedFiles = referencedFiles == null ? Set.of() : referencedFiles;
+    }
+
+    Stream<String> files() {
+        return Stream.of(
+                catalogs.values().stream().map(Entry::file),
+                schemas.values().stream().map(Entry::file),
+                referencedFiles.stream()
+        ).flatMap(s -> s);
+    }
+}
+
+/**
+ * Records the fingerprint of the inputs of each generation stage and the index entries the stage
+ * produced, so that the next build can skip the stages whose inputs have not changed.
+ * It is stored in the output directory next to the generated files, without the .json extension
+ * so that it isn't published along with them.
+ */
+public class BuildManifest {
+    public static final String FILE_NAME = ".kaoto-camel-catalog-manifest";
+    /** The name of the manifest in the previous versions, which was copied into the UI assets. */
+    private static final String LEGACY_FILE_NAME = FILE_NAME + ".json";
+
+    private Map<String, StageRecord> stages = new ConcurrentHashMap<>();
+
+    public Map<String, StageRecord> getStages() {
+        return stages;
+    }
+
+    public void setStages(Map<String, StageRecord> stages) {
+        this.stages = new ConcurrentHashMap<>(stages);
+    }
+
+    /**
+     * Load the manifest from the output directory, or create an empty one if it doesn't exist
+     * or can't be read.
+     * @param mapper
+     * @param outputDir
+     * @return
+     */
+    public static BuildManifest load(ObjectMapper mapper, Path outputDir) {
+        var file = outputDir.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            try {
+                return mapper.readValue(file.toFile(), BuildManifest.class);
+            } catch (Exception e) {
+                // a broken manifest just means a full rebuild
+            }
+        }
+        return new BuildManifest();
+    }
+
+    public void save(ObjectMapper mapper, Path outputDir) throws Exception {
+        mapper.writerWithDefaultPrettyPrinter().writeValue(outputDir.resolve(FILE_NAME).toFile(), this);
+        Files.deleteIfExists(outputDir.resolve(LEGACY_FILE_NAME));
+    }
+
+    public static void delete(Path outputDir) throws Exception {
+        Files.deleteIfExists(outputDir.resolve(FILE_NAME));
+        Files.deleteIfExists(outputDir.resolve(LEGACY_FILE_NAME));
+    }
+
+    /**
+     * Copy the recorded index entries of the stage into the index if the stage was built from the
+     * inputs with the same fingerprint and all of its output files still exist.
+     * @param stage
+     * @param fingerprint
+     * @param outputDir
+     * @param index
+     * @return true if the entries were restored and the stage can be skipped
+     */
+    public boolean restore(String stage, String fingerprint, Path outputDir, Index index) {
+        var record = stages.get(stage);
+        if (record == null || !record.fingerprint().equals(fingerprint)) {
+            return false;
+        }
+        var allExist = record.files().allMatch(file -> Files.exists(outputDir.resolve(file)));
+        if (!allExist) {
+            return false;
+        }
+        index.getCatalogs().putAll(record.catalogs());
+        index.getSchemas().putAll(record.schemas());
+        index.getReferencedFiles().addAll(record.referencedFiles());
+        return true;
+    }
+
+    /**
+     * Restore the stage if it is up to date, otherwise build it into an index of its own, add the
+     * result to the index and record it.
+     * @param stage
+     * @param fingerprint
+     * @param outputDir
+     * @param index
+     * @param action builds the stage into the given index
+     * @return true if the stage was restored rather than built
+     * @throws Exception if the result of the stage couldn't be recorded, it is in the index anyway
+     */
+    public boolean run(String stage, String fingerprint, Path outputDir, Index index, Consumer<Index> action)
+            throws Exception {
+        if (restore(stage, fingerprint, outputDir, index)) {
+            return true;
+        }
+        var stageIndex = new Index();
+        action.accept(stageIndex);
+        index.getCatalogs().putAll(stageIndex.getCatalogs());
+        index.getSchemas().putAll(stageIndex.getSchemas());
+        index.getReferencedFiles().addAll(stageIndex.getReferencedFiles());
+        record(stage, fingerprint, outputDir, stageIndex);
+        return false;
+    }
+
+    /**
+     * Record the result of a stage which has just been built, and remove the output files which
+     * the previous build of the stage produced but this one didn't.
+     * @param stage
+     * @param fingerprint
+     * @param outputDir
+     * @param stageIndex
+     * @throws Exception
+     */
+    public void record(String stage, String fingerprint, Path outputDir, Index stageIndex) throws Exception {
+        var current = new StageRecord(
+                fingerprint, stageIndex.getCatalogs(), stageIndex.getSchemas(), stageIndex.getReferencedFiles());
+        var previous = stages.put(stage, current);
+        if (previous == null) {
+            return;
+        }
+        var currentFiles = current.files().collect(Collectors.toSet());
+        var staleFiles = previous.files()
+                .filter(file -> !currentFiles.contains(file))
+                .toList();
+        for (var file : staleFiles) {
+            Files.deleteIfExists(outputDir.resolve(file));
+            for (var sibling : HashedFileWriter.getSiblingFileNames(file)) {
+                Files.deleteIfExists(outputDir.resolve(sibling));
+            }
+        }
+    }
+
+    /**
+     * Accumulates the inputs of a stage into a single digest.
+     */
+    public static class Fingerprint {
+        private final MessageDigest digest;
+
+        public Fingerprint() throws Exception {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        }
+
+        public Fingerprint add(String value) {
+            var bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            digest.update(bytes);
+            return this;
+        }
+
+        public Fingerprint add(boolean value) {
+            return add(Boolean.toString(value));
+        }
+
+        public Fingerprint add(List<String> values) {
+            if (values == null) {
+                return add("null");
+            }
+            add(Integer.toString(values.size()));
+            values.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * Add the content of a file, or the name and content of all the files under a directory.
+         * @param path
+         * @return
+         * @throws Exception
+         */
+        public Fingerprint add(Path path) throws Exception {
+            if (!Files.exists(path)) {
+                return add("missing:" + path);
+            }
+            if (!Files.isDirectory(path)) {
+                addContent(path);
+                return this;
+            }
+            try (var files = Files.walk(path)) {
+                for (var file : files.filter(Files::isRegularFile).sorted().toList()) {
+                    add(path.relativize(file).toString());
+                    addContent(file);
+                }
+            }
+            return this;
+        }
+
+        private void addContent(Path file) throws Exception {
+            try (InputStream is = new DigestInputStream(Files.newInputStream(file), digest)) {
+                is.transferTo(OutputStream.nullOutputStream());
+            }
+            digest.update((byte) 0);
+        }
+
+        public String build() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
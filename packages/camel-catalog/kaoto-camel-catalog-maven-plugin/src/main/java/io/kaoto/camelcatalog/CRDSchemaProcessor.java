@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Extracts the OpenAPI v3 schema of a CustomResourceDefinition from its YAML or JSON tree, without
+ * binding it to a Kubernetes model.
+ */
+public class CRDSchemaProcessor {
+    /** Select the version which is stored. */
+    public static final String STORAGE = "storage";
+    /** Select the first version which is served. */
+    public static final String SERVED = "served";
+    private final JsonNode crd;
+
+    /**
+     * @param crd the tree of the CustomResourceDefinition
+     */
+    public CRDSchemaProcessor(JsonNode crd) {
+        this.crd = crd;
+    }
+
+    /**
+     * Get the kind of the custom resource.
+     * @return
+     */
+    public String getKind() {
+        var kind = crd.at("/spec/names/kind");
+        if (!kind.isTextual()) {
+            throw new IllegalArgumentException("The CRD has no spec.names.kind");
+        }
+        return kind.asText();
+    }
+
+    /**
+     * Get the schema of the selected version.
+     * @param versionSelector {@value #STORAGE}, {@value #SERVED}, the name of the version, or
+     *                        {@code null} for the first version
+     * @return the {@code openAPIV3Schema} of the version, as it is in the CRD
+     */
+    public JsonNode getOpenAPIV3Schema(String versionSelector) {
+        var version = getVersion(versionSelector);
+        var schema = version.at("/schema/openAPIV3Schema");
+        if (!schema.isObject()) {
+            throw new IllegalArgumentException(String.format(
+                    "The CRD version '%s' of '%s' has no openAPIV3Schema", version.path("name").asText(), getKind()));
+        }
+        return schema;
+    }
+
+    private JsonNode getVersion(String versionSelector) {
+        var versions = crd.at("/spec/versions");
+        for (var version : versions) {
+            if (versionSelector == null || versionSelector.isEmpty()
+                    || STORAGE.equals(versionSelector) && version.path(STORAGE).asBoolean()
+                    || SERVED.equals(versionSelector) && version.path(SERVED).asBoolean()
+                    || versionSelector.equals(version.path("name").asText())) {
+                return version;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "The CRD of '%s' has no version matching '%s'", getKind(), versionSelector));
+    }
+}
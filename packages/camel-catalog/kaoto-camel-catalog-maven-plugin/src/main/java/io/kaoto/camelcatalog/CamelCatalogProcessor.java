@@ -19,17 +19,22 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.camel.catalog.DefaultCamelCatalog;
-import org.apache.camel.catalog.Kind;
-import org.apache.camel.tooling.model.ComponentModel;
 import org.apache.camel.tooling.model.EipModel;
 import org.apache.camel.tooling.model.JsonMapper;
 
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Customize Camel Catalog for Kaoto.
@@ -37,14 +42,67 @@ import java.util.Map;
 public class CamelCatalogProcessor {
     private static final String TO_DYNAMIC_DEFINITION = "org.apache.camel.model.ToDynamicDefinition";
     private static final String SET_HEADERS_DEFINITION = "org.apache.camel.model.SetHeadersDefinition";
+    /** Option names which differ between the catalog and the YAML DSL schema, catalog name to schema name. */
+    private static final Map<String, Map<String, String>> OPTION_ALIASES = Map.of(
+            "route", Map.of("routePolicyRef", "routePolicy", "streamCache", "streamCaching"),
+            "routeTemplate", Map.of("templateBean", "beans"),
+            "templatedRoute", Map.of("bean", "beans"));
+    /** The catalogs whose propertiesSchema comes from the YAML DSL schema with its definitions. */
+    private static final List<String> DEREFERENCED_CATALOGS = List.of("dataformats", "languages", "patterns", "entities");
+    private static final List<String> SUMMARY_FIELDS = List.of("name", "title", "description", "label");
     private final ObjectMapper jsonMapper;
+    private final JsonObjectConverter jsonConverter;
     private final DefaultCamelCatalog api;
+    private final CatalogModelIndex models;
+    private final Map<EipModel, Map<String, EipModel.EipOptionModel>> optionIndex = new ConcurrentHashMap<>();
     private final CamelYamlDslSchemaProcessor schemaProcessor;
+    private final PropertiesSchemaMapping propertiesSchemaMapping;
+    private int parallelism = 1;
+    private boolean compactPropertiesSchema;
+    private boolean dereferenceSchemas;
 
     public CamelCatalogProcessor(ObjectMapper jsonMapper, CamelYamlDslSchemaProcessor schemaProcessor) {
         this.jsonMapper = jsonMapper;
+        this.jsonConverter = new JsonObjectConverter(jsonMapper);
         this.api = new DefaultCamelCatalog();
+        this.models = new CatalogModelIndex(api);
         this.schemaProcessor = schemaProcessor;
+        this.propertiesSchemaMapping = new PropertiesSchemaMapping(jsonMapper);
+    }
+
+    /**
+     * Omit the {@code propertiesSchema} which is derived from the {@code properties}, i.e. the one of
+     * the components and of the {@code from} model. The consumers rebuild it with the
+     * {@link #getPropertiesSchemaMapping()} descriptor.
+     * @param compactPropertiesSchema
+     */
+    public void setCompactPropertiesSchema(boolean compactPropertiesSchema) {
+        this.compactPropertiesSchema = compactPropertiesSchema;
+    }
+
+    /**
+     * Inline the "$ref"s of the {@code propertiesSchema} of the data formats, languages, patterns
+     * and entities in {@link #processCatalog(CatalogSink)}, see {@link SchemaDereferencer}.
+     * @param dereferenceSchemas
+     */
+    public void setDereferenceSchemas(boolean dereferenceSchemas) {
+        this.dereferenceSchemas = dereferenceSchemas;
+    }
+
+    /**
+     * Get the descriptor of how the {@code propertiesSchema} is derived from the {@code properties}.
+     * @return
+     */
+    public ObjectNode getPropertiesSchemaMapping() {
+        return propertiesSchemaMapping.getDescriptor().deepCopy();
+    }
+
+    /**
+     * Set the number of threads used to build the entries of the component and model catalogs.
+     * @param parallelism 1 or less builds them on the calling thread
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
     }
 
     /**
@@ -53,98 +111,153 @@ public class CamelCatalogProcessor {
      */
     public Map<String, String> processCatalog() throws Exception {
         var answer = new LinkedHashMap<String, String>();
-        var componentCatalog = getComponentCatalog();
-        var dataFormatCatalog = getDataFormatCatalog();
-        var languageCatalog = getLanguageCatalog();
-        var modelCatalog = getModelCatalog();
-        var patternCatalog = getPatternCatalog();
-        var entityCatalog = getEntityCatalog();
-        var loadBalancerCatalog = getLoadBalancerCatalog();
-        answer.put("components", componentCatalog);
-        answer.put("dataformats", dataFormatCatalog);
-        answer.put("languages", languageCatalog);
-        answer.put("models", modelCatalog);
-        answer.put("patterns", patternCatalog);
-        answer.put("entities", entityCatalog);
-        answer.put("loadbalancers", loadBalancerCatalog);
+        processCatalog((name, catalog) -> answer.put(name, toPrettyJson(catalog)));
         return answer;
     }
 
     /**
-     * Get aggregated Camel component Catalog.
-     * @return
+     * Create Camel catalogs customized for Kaoto usage and pass them to the sink one by one,
+     * so that only one catalog tree is held in memory at a time.
+     * @param sink
      * @throws Exception
      */
-    public String getComponentCatalog() throws Exception {
+    public void processCatalog(CatalogSink sink) throws Exception {
+        CatalogSink target = dereferenceSchemas ? (name, catalog) -> sink.accept(name, dereference(name, catalog)) : sink;
+        target.accept("components", buildComponentCatalog());
+        target.accept("dataformats", buildDataFormatCatalog());
+        target.accept("languages", buildLanguageCatalog());
+        target.accept("models", buildModelCatalog());
+        target.accept("patterns", buildPatternCatalog());
+        target.accept("entities", buildEntityCatalog());
+        target.accept("loadbalancers", buildLoadBalancerCatalog());
+    }
+
+    private ObjectNode dereference(String name, ObjectNode catalog) {
+        if (!DEREFERENCED_CATALOGS.contains(name)) {
+            return catalog;
+        }
+        for (var entry : catalog) {
+            if (entry.get("propertiesSchema") instanceof ObjectNode propertiesSchema) {
+                ((ObjectNode) entry).set("propertiesSchema", SchemaDereferencer.dereference(propertiesSchema));
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Receives the generated catalogs.
+     */
+    @FunctionalInterface
+    public interface CatalogSink {
+        void accept(String name, ObjectNode catalog) throws Exception;
+    }
+
+    /**
+     * Create a lightweight summary of a catalog which lists each entry with only its name, title,
+     * description and label, plus the name of the file which holds the full entry, so that the
+     * full entry can be loaded lazily when it's needed.
+     * @param catalog the catalog keyed by entry name, e.g. the component catalog
+     * @param entryFiles the name of the file which holds the full entry, keyed by entry name
+     * @return
+     */
+    public ObjectNode createSummary(ObjectNode catalog, Map<String, String> entryFiles) {
         var answer = jsonMapper.createObjectNode();
-        api.findComponentNames().stream().sorted().forEach((name) -> {
-            try {
-                var model = (ComponentModel) api.model(Kind.component, name);
-                var json = JsonMapper.asJsonObject(model).toJson();
-                var catalogNode = (ObjectNode) jsonMapper.readTree(json);
-                generatePropertiesSchema(catalogNode);
-                answer.set(name, catalogNode);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+        for (var entry : catalog.properties()) {
+            var summary = answer.putObject(entry.getKey());
+            // "component" for components, "model" for the others
+            for (var header : List.of("component", "model")) {
+                if (entry.getValue().has(header)) {
+                    var source = entry.getValue().get(header);
+                    var target = summary.putObject(header);
+                    SUMMARY_FIELDS.stream().filter(source::has).forEach(field -> target.set(field, source.get(field)));
+                }
             }
-        });
+            summary.put("file", entryFiles.get(entry.getKey()));
+        }
+        return answer;
+    }
+
+    private String toPrettyJson(ObjectNode catalog) throws Exception {
         StringWriter writer = new StringWriter();
         var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
+        jsonMapper.writeTree(jsonGenerator, catalog);
         return writer.toString();
     }
 
-    private void generatePropertiesSchema(ObjectNode parent) throws Exception {
-        var answer = parent.withObject("/propertiesSchema");
-        answer.put("$schema", "http://json-schema.org/draft-07/schema#");
-        answer.put("type", "object");
-
-        var properties = parent.withObject("/properties");
-        var answerProperties = answer.withObject("/properties");
-        var required = new LinkedHashSet<String>();
-        for (var propertyEntry : properties.properties()) {
-            var propertyName = propertyEntry.getKey();
-            var property = (ObjectNode) propertyEntry.getValue();
-            var propertySchema = answerProperties.withObject("/" + propertyName);
-            if (property.has("displayName")) propertySchema.put("title", property.get("displayName").asText());
-            if (property.has("description")) propertySchema.put("description", property.get("description").asText());
-            var propertyType = "string";
-            if (property.has("type")) {
-                propertyType = property.get("type").asText();
-                if ("duration".equals(propertyType)) {
-                    propertyType = "string";
-                    propertySchema.put("$comment", "duration");
-                }
-                propertySchema.put("type", propertyType);
-            }
-            if (property.has("deprecated")) propertySchema.put("deprecated", property.get("deprecated").asBoolean());
-            if (property.has("required") && property.get("required").asBoolean()) {
-                required.add(propertyName);
+    /**
+     * Get aggregated Camel component Catalog.
+     * @return
+     * @throws Exception
+     */
+    public String getComponentCatalog() throws Exception {
+        return toPrettyJson(buildComponentCatalog());
+    }
+
+    private ObjectNode buildComponentCatalog() throws Exception {
+        var answer = buildEntries(models.getComponents(), (name, model) -> {
+            var catalogNode = jsonConverter.asObjectNode(model);
+            generatePropertiesSchema("components", name, catalogNode);
+            return catalogNode;
+        });
+        return answer;
+    }
+
+    /**
+     * Build a catalog entry for each model and put them into a single object sorted by name.
+     * The entries are built on a fork-join pool if the parallelism is greater than 1. All
+     * the entries are attempted, and the failures are reported together.
+     * @param catalogModels the models keyed by name
+     * @param builder
+     * @return
+     * @throws Exception if any of the entries failed, with the failures as suppressed exceptions
+     */
+    private <M> ObjectNode buildEntries(Map<String, M> catalogModels, EntryBuilder<M> builder) throws Exception {
+        var names = catalogModels.keySet().stream().sorted().toList();
+        var entries = new ObjectNode[names.size()];
+        var failures = new Exception[names.size()];
+        IntConsumer buildEntry = i -> {
+            try {
+                entries[i] = builder.build(names.get(i), catalogModels.get(names.get(i)));
+            } catch (Exception e) {
+                failures[i] = e;
             }
-            if (property.has("defaultValue")) {
-                if ("array".equals(propertyType)) {
-                    propertySchema.withArray("/default").add(property.get("defaultValue"));
-                } else {
-                    propertySchema.set("default", property.get("defaultValue"));
-                }
+        };
+        if (parallelism > 1) {
+            try (var pool = new ForkJoinPool(parallelism)) {
+                pool.submit(() -> IntStream.range(0, names.size()).parallel().forEach(buildEntry)).get();
             }
+        } else {
+            IntStream.range(0, names.size()).forEach(buildEntry);
+        }
 
-            if (property.has("enum")) {
-                property.withArray("/enum")
-                        .forEach(e -> propertySchema.withArray("/enum").add(e));
-                if (!propertySchema.has("type") || "object".equals(propertySchema.get("type").asText())) {
-                    propertySchema.put("type", "string");
-                }
-            } else if ("array".equals(propertyType)) {
-                propertySchema.withObject("/items").put("type", "string");
-            } else if ("object".equals(propertyType) && property.has("javaType") && !property.get("javaType").asText().startsWith("java.util.Map")) {
-                // Put "string" as a type and javaType as a schema $comment to indicate
-                // that the UI should handle this as a bean reference field
-                propertySchema.put("type", "string");
-                propertySchema.put("$comment", "class:" + property.get("javaType").asText());
+        var failedNames = new ArrayList<String>();
+        var answer = jsonMapper.createObjectNode();
+        for (int i = 0; i < names.size(); i++) {
+            if (failures[i] != null) {
+                failedNames.add(names.get(i));
+            } else {
+                answer.set(names.get(i), entries[i]);
             }
         }
-        required.forEach(req -> answer.withArray("/required").add(req));
+        if (!failedNames.isEmpty()) {
+            var exception = new Exception("Failed to generate the catalog entries for " + failedNames);
+            Arrays.stream(failures).filter(Objects::nonNull).forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return answer;
+    }
+
+    @FunctionalInterface
+    private interface EntryBuilder<M> {
+        ObjectNode build(String name, M model) throws Exception;
+    }
+
+    private void generatePropertiesSchema(String catalog, String entryName, ObjectNode parent) {
+        if (compactPropertiesSchema || !propertiesSchemaMapping.isDerived(catalog, entryName)) {
+            return;
+        }
+        var answer = parent.withObject("/propertiesSchema");
+        answer.setAll(propertiesSchemaMapping.derive(parent.withObject("/properties")));
     }
 
     /**
@@ -153,24 +266,24 @@ public class CamelCatalogProcessor {
      * @throws Exception
      */
     public String getDataFormatCatalog() throws Exception {
+        return toPrettyJson(buildDataFormatCatalog());
+    }
+
+    private ObjectNode buildDataFormatCatalog() throws Exception {
         var answer = jsonMapper.createObjectNode();
         var dataFormatSchemaMap = schemaProcessor.getDataFormats();
         for (var entry : dataFormatSchemaMap.entrySet()) {
             var dataFormatName = entry.getKey();
             var dataFormatSchema = entry.getValue();
-            var dataFormatCatalog = (EipModel) api.model(Kind.eip, dataFormatName);
+            var dataFormatCatalog = models.getModel(dataFormatName);
             if (dataFormatCatalog == null) {
                 throw new Exception("DataFormat " + dataFormatName + " is not found in Camel model catalog.");
             }
-            var json = JsonMapper.asJsonObject(dataFormatCatalog).toJson();
-            var catalogTree = (ObjectNode) jsonMapper.readTree(json);
+            var catalogTree = jsonConverter.asObjectNode(dataFormatCatalog);
             catalogTree.set("propertiesSchema", dataFormatSchema);
             answer.set(dataFormatName, catalogTree);
         }
-        StringWriter writer = new StringWriter();
-        var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
-        return writer.toString();
+        return answer;
     }
 
     /**
@@ -179,47 +292,39 @@ public class CamelCatalogProcessor {
      * @throws Exception
      */
     public String getLanguageCatalog() throws Exception {
+        return toPrettyJson(buildLanguageCatalog());
+    }
+
+    private ObjectNode buildLanguageCatalog() throws Exception {
         var answer = jsonMapper.createObjectNode();
         var languageSchemaMap = schemaProcessor.getLanguages();
         for (var entry : languageSchemaMap.entrySet()) {
             var languageName = entry.getKey();
             var languageSchema = entry.getValue();
-            var languageCatalog = (EipModel) api.model(Kind.eip, languageName);
+            var languageCatalog = models.getModel(languageName);
             if (languageCatalog == null) {
                 throw new Exception("Language " + languageName + " is not found in Camel model catalog.");
             }
-            var json = JsonMapper.asJsonObject(languageCatalog).toJson();
-            var catalogTree = (ObjectNode) jsonMapper.readTree(json);
+            var catalogTree = jsonConverter.asObjectNode(languageCatalog);
             catalogTree.set("propertiesSchema", languageSchema);
             answer.set(languageName, catalogTree);
         }
-        StringWriter writer = new StringWriter();
-        var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
-        return writer.toString();
+        return answer;
     }
 
     public String getModelCatalog() throws Exception {
-        var answer = jsonMapper.createObjectNode();
-        api.findModelNames().stream().sorted().forEach((name) -> {
-            try {
-                var model = (EipModel) api.model(Kind.eip, name);
-                var json = JsonMapper.asJsonObject(model).toJson();
-                var catalogNode = (ObjectNode) jsonMapper.readTree(json);
-                if ("from".equals(name)) {
-                    // "from" is an exception that is not a processor, therefore it's not in the
-                    // pattern catalog - put the propertiesSchema here
-                    generatePropertiesSchema(catalogNode);
-                }
-                answer.set(name, catalogNode);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        return toPrettyJson(buildModelCatalog());
+    }
+
+    private ObjectNode buildModelCatalog() throws Exception {
+        var answer = buildEntries(models.getModels(), (name, model) -> {
+            var catalogNode = jsonConverter.asObjectNode(model);
+            // "from" is an exception that is not a processor, therefore it's not in the
+            // pattern catalog - put the propertiesSchema here
+            generatePropertiesSchema("models", name, catalogNode);
+            return catalogNode;
         });
-        StringWriter writer = new StringWriter();
-        var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
-        return writer.toString();
+        return answer;
     }
 
     /**
@@ -228,17 +333,16 @@ public class CamelCatalogProcessor {
      * @throws Exception
      */
     public String getPatternCatalog() throws Exception {
+        return toPrettyJson(buildPatternCatalog());
+    }
+
+    private ObjectNode buildPatternCatalog() throws Exception {
         var answer = jsonMapper.createObjectNode();
         var processors = schemaProcessor.getProcessors();
-        var catalogMap = new LinkedHashMap<String, EipModel>();
-        for (var name : api.findModelNames()) {
-            var modelCatalog = (EipModel) api.model(Kind.eip, name);
-            catalogMap.put(modelCatalog.getJavaType(), modelCatalog);
-        }
         for (var entry : processors.entrySet()) {
             var processorFQCN = entry.getKey();
             var processorSchema = entry.getValue();
-            var processorCatalog = catalogMap.get(processorFQCN);
+            var processorCatalog = models.getModelByJavaType(processorFQCN);
             for (var property : processorSchema.withObject("/properties").properties()) {
                 var propertyName = property.getKey();
                 var propertySchema = (ObjectNode) property.getValue();
@@ -253,25 +357,20 @@ public class CamelCatalogProcessor {
                     propertySchema.put("description", "Headers to set");
                     continue;
                 }
-                var catalogOpOptional = processorCatalog.getOptions().stream().filter(op -> op.getName().equals(propertyName)).findFirst();
-                if (catalogOpOptional.isEmpty()) {
+                var catalogOp = getOption(processorCatalog, propertyName);
+                if (catalogOp == null) {
                     throw new Exception(String.format("Option '%s' not found for processor '%s'", propertyName, processorFQCN));
                 }
-                var catalogOp = catalogOpOptional.get();
                 if ("object".equals(catalogOp.getType()) && !catalogOp.getJavaType().startsWith("java.util.Map")
                         && !propertySchema.has("$comment")) {
                     propertySchema.put("$comment", "class:" + catalogOp.getJavaType());
                 }
             }
-            var json = JsonMapper.asJsonObject(processorCatalog).toJson();
-            var catalogTree = (ObjectNode) jsonMapper.readTree(json);
+            var catalogTree = jsonConverter.asObjectNode(processorCatalog);
             catalogTree.set("propertiesSchema", processorSchema);
             answer.set(processorCatalog.getName(), catalogTree);
         }
-        StringWriter writer = new StringWriter();
-        var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
-        return writer.toString();
+        return answer;
     }
 
     /**
@@ -286,13 +385,13 @@ public class CamelCatalogProcessor {
      * @throws Exception
      */
     public String getEntityCatalog() throws Exception {
+        return toPrettyJson(buildEntityCatalog());
+    }
+
+    private ObjectNode buildEntityCatalog() throws Exception {
         var answer = jsonMapper.createObjectNode();
         var entities = schemaProcessor.getEntities();
-        var catalogMap = new LinkedHashMap<String, EipModel>();
-        for (var name : api.findModelNames()) {
-            var modelCatalog = (EipModel) api.model(Kind.eip, name);
-            catalogMap.put(name, modelCatalog);
-        }
+        var catalogMap = new LinkedHashMap<>(models.getModels());
         InputStream is = api.getClass().getClassLoader().getResourceAsStream("org/apache/camel/catalog/models-app/bean.json");
         var beanJsonObj = JsonMapper.deserialize(new String(is.readAllBytes()));
         var beanModel = JsonMapper.generateEipModel(beanJsonObj);
@@ -318,25 +417,54 @@ public class CamelCatalogProcessor {
             } else {
                 processEntityParameters(entityName, entitySchema, entityCatalog);
             }
-            var json = JsonMapper.asJsonObject(entityCatalog).toJson();
-            var catalogTree = (ObjectNode) jsonMapper.readTree(json);
+            var catalogTree = jsonConverter.asObjectNode(entityCatalog);
+            renameAliasedOptions(entityCatalog, catalogTree);
             catalogTree.set("propertiesSchema", entitySchema);
             answer.set(entityName, catalogTree);
         }
         addMoreBeans(answer, catalogMap);
 
-        StringWriter writer = new StringWriter();
-        var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
-        return writer.toString();
+        return answer;
+    }
+
+    /**
+     * Find the option of the model by the property name used in the YAML DSL schema.
+     * @param model
+     * @param propertyName
+     * @return the option, or null if not found
+     */
+    private EipModel.EipOptionModel getOption(EipModel model, String propertyName) {
+        return optionIndex.computeIfAbsent(model, m -> {
+            var aliases = OPTION_ALIASES.getOrDefault(m.getName(), Map.of());
+            var answer = new HashMap<String, EipModel.EipOptionModel>();
+            for (var op : m.getOptions()) {
+                answer.putIfAbsent(aliases.getOrDefault(op.getName(), op.getName()), op);
+            }
+            return answer;
+        }).get(propertyName);
+    }
+
+    /**
+     * Rename the aliased options in the catalog JSON to the names used in the YAML DSL schema.
+     * @param model
+     * @param catalogTree
+     */
+    private void renameAliasedOptions(EipModel model, ObjectNode catalogTree) {
+        var aliases = OPTION_ALIASES.get(model.getName());
+        if (aliases == null || !catalogTree.has("properties")) {
+            return;
+        }
+        var properties = jsonMapper.createObjectNode();
+        catalogTree.withObject("/properties").properties().forEach(
+                property -> properties.set(aliases.getOrDefault(property.getKey(), property.getKey()), property.getValue()));
+        catalogTree.set("properties", properties);
     }
 
     private void doProcessParameter(EipModel entityCatalog, String propertyName, ObjectNode propertySchema) throws Exception {
-        var catalogOp = entityCatalog.getOptions().stream().filter(op -> op.getName().equals(propertyName)).findFirst();
-        if (catalogOp.isEmpty()) {
+        var catalogOption = getOption(entityCatalog, propertyName);
+        if (catalogOption == null) {
             throw new Exception(String.format("Option '%s' not found for '%s'", propertyName, entityCatalog.getName()));
         }
-        var catalogOption = catalogOp.get();
         if (catalogOption.getDisplayName() != null) propertySchema.put("title", catalogOption.getDisplayName());
         if (catalogOption.getDescription() != null) propertySchema.put("description", catalogOption.getDescription());
         var propertyType = propertySchema.has("type") ? propertySchema.get("type").asText() : null;
@@ -381,14 +509,6 @@ public class CamelCatalogProcessor {
     }
 
     private void processRouteParameters(ObjectNode entitySchema, EipModel entityCatalog) throws Exception {
-        for (var op : entityCatalog.getOptions()) {
-            // parameter name mismatch between schema and catalog
-            if ("routePolicyRef".equals(op.getName())) {
-                op.setName("routePolicy");
-            } else if ("streamCache".equals(op.getName())) {
-                op.setName("streamCaching");
-            }
-        }
         for (var property : entitySchema.withObject("/properties").properties()) {
             var propertyName = property.getKey();
             var propertySchema = (ObjectNode) property.getValue();
@@ -406,12 +526,6 @@ public class CamelCatalogProcessor {
     }
 
     private void processRouteTemplateParameters(ObjectNode entitySchema, EipModel entityCatalog) throws Exception {
-        for (var op : entityCatalog.getOptions()) {
-            // parameter name mismatch between schema and catalog
-            if ("templateBean".equals(op.getName())) {
-                op.setName("beans");
-            }
-        }
         for (var property : entitySchema.withObject("/properties").properties()) {
             var propertyName = property.getKey();
             var propertySchema = (ObjectNode) property.getValue();
@@ -431,12 +545,6 @@ public class CamelCatalogProcessor {
     }
 
     private void processTemplatedRouteParameters(ObjectNode entitySchema, EipModel entityCatalog) throws Exception {
-        for (var op : entityCatalog.getOptions()) {
-            // parameter name mismatch between schema and catalog
-            if ("bean".equals(op.getName())) {
-                op.setName("beans");
-            }
-        }
         for (var property : entitySchema.withObject("/properties").properties()) {
             var propertyName = property.getKey();
             var propertySchema = (ObjectNode) property.getValue();
@@ -501,8 +609,7 @@ public class CamelCatalogProcessor {
 
     private void addMoreBeans(ObjectNode answer, Map<String, EipModel> catalogMap) throws Exception {
         var beansCatalog = catalogMap.get("beans");
-        var json = JsonMapper.asJsonObject(beansCatalog).toJson();
-        var catalogTree = (ObjectNode) jsonMapper.readTree(json);
+        var catalogTree = jsonConverter.asObjectNode(beansCatalog);
         var beanDefinition = answer.withObject("/beans")
                 .withObject("/propertiesSchema")
                 .withObject("/definitions")
@@ -511,16 +618,14 @@ public class CamelCatalogProcessor {
         answer.set("bean", catalogTree);
 
         var routeTemplateBeanCatalog = catalogMap.get("templateBean");
-        json = JsonMapper.asJsonObject(routeTemplateBeanCatalog).toJson();
-        catalogTree = (ObjectNode) jsonMapper.readTree(json);
+        catalogTree = jsonConverter.asObjectNode(routeTemplateBeanCatalog);
         var propertiesSchema = schemaProcessor.getRouteTemplateBean();
         processEntityParameters("routeTemplateBean", propertiesSchema, routeTemplateBeanCatalog);
         catalogTree.set("propertiesSchema", propertiesSchema);
         answer.set("routeTemplateBean", catalogTree);
 
         var templatedRouteBeanCatalog = catalogMap.get("templatedRouteBean");
-        json = JsonMapper.asJsonObject(templatedRouteBeanCatalog).toJson();
-        catalogTree = (ObjectNode) jsonMapper.readTree(json);
+        catalogTree = jsonConverter.asObjectNode(templatedRouteBeanCatalog);
         propertiesSchema = schemaProcessor.getTemplatedRouteBean();
         processEntityParameters( "templatedRouteBean", propertiesSchema, templatedRouteBeanCatalog);
         catalogTree.set("propertiesSchema", propertiesSchema);
@@ -533,23 +638,23 @@ public class CamelCatalogProcessor {
      * @throws Exception
      */
     public String getLoadBalancerCatalog() throws Exception {
+        return toPrettyJson(buildLoadBalancerCatalog());
+    }
+
+    private ObjectNode buildLoadBalancerCatalog() throws Exception {
         var answer = jsonMapper.createObjectNode();
         var loadBalancerSchemaMap = schemaProcessor.getLoadBalancers();
         for (var entry : loadBalancerSchemaMap.entrySet()) {
             var loadBalancerName = entry.getKey();
             var loadBalancerSchema = entry.getValue();
-            var loadBalancerCatalog = (EipModel) api.model(Kind.eip, loadBalancerName);
+            var loadBalancerCatalog = models.getModel(loadBalancerName);
             if (loadBalancerCatalog == null) {
                 throw new Exception("LoadBalancer " + loadBalancerName + " is not found in Camel model catalog.");
             }
-            var json = JsonMapper.asJsonObject(loadBalancerCatalog).toJson();
-            var catalogTree = (ObjectNode) jsonMapper.readTree(json);
+            var catalogTree = jsonConverter.asObjectNode(loadBalancerCatalog);
             catalogTree.set("propertiesSchema", loadBalancerSchema);
             answer.set(loadBalancerName, catalogTree);
         }
-        StringWriter writer = new StringWriter();
-        var jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-        jsonMapper.writeTree(jsonGenerator, answer);
-        return writer.toString();
+        return answer;
     }
 }
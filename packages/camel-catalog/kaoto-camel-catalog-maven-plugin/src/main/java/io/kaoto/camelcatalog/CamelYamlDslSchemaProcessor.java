@@ -22,6 +22,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -43,6 +45,8 @@ public class CamelYamlDslSchemaProcessor {
     private static final String TEMPLATED_ROUTE_BEAN_DEFINITION = "org.apache.camel.model.TemplatedRouteBeanDefinition";
     private final ObjectMapper jsonMapper;
     private final ObjectNode yamlDslSchema;
+    /** The definitions with their "$ref" relocated to the root, shared by all getters and never modified. */
+    private ObjectNode relocatedDefinitionsModel;
     private final List<String> processorBlocklist = List.of(
             "org.apache.camel.model.KameletDefinition"
             // reactivate entries once we have a better handling of how to add WHEN and OTHERWISE without Catalog
@@ -74,17 +78,90 @@ public class CamelYamlDslSchemaProcessor {
 
     public Map<String, String> processSubSchema() throws Exception {
         var answer = new LinkedHashMap<String, String>();
+        for (var entry : getSubSchemas().entrySet()) {
+            var writer = new StringWriter();
+            JsonGenerator gen = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
+            jsonMapper.writeTree(gen, entry.getValue());
+            answer.put(entry.getKey(), writer.toString());
+        }
+        return answer;
+    }
+
+    /**
+     * Get the sub schemas as JSON trees, one per top level property of the Camel YAML DSL.
+     * @return
+     */
+    public Map<String, ObjectNode> getSubSchemas() {
+        var answer = new LinkedHashMap<String, ObjectNode>();
         var items = yamlDslSchema.withObject("/items");
         var properties = items.withObject("/properties");
-        var definitions = items.withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
+        var relocatedDefinitions = getRelocatedDefinitions();
+        // sub schemas don't modify the definitions, the graph can be shared among them
+        var refGraph = createRefGraph(relocatedDefinitions);
         properties.properties().forEach(p -> {
-            var subSchema = doProcessSubSchema(p, relocatedDefinitions, yamlDslSchema);
+            var subSchema = doProcessSubSchema(p, relocatedDefinitions, refGraph, yamlDslSchema);
             answer.put(p.getKey(), subSchema);
         });
         return answer;
     }
 
+    /**
+     * The Camel YAML DSL schema with only the definitions reachable from its top level properties.
+     * @param schema
+     * @param removedDefinitions the names of the definitions which were not reachable
+     */
+    public record ReachableSchema(ObjectNode schema, List<String> removedDefinitions) {}
+
+    /**
+     * Get a copy of the Camel YAML DSL schema without the definitions which are not reachable from
+     * its top level properties, with all the "$ref"s normalized to the {@code #/items/definitions/}
+     * form.
+     * @return
+     */
+    public ReachableSchema getReachableSchema() {
+        var answer = yamlDslSchema.deepCopy();
+        var items = answer.withObject("/items");
+        var definitions = (ObjectNode) items.remove("definitions");
+        // the graph normalizes the refs of everything it walks through, i.e. of all what's kept
+        var refGraph = new SchemaRefGraph(
+                name -> definitions.has(name) ? (ObjectNode) definitions.get(name) : definitions.objectNode(),
+                this::normalizeRef);
+        var reachable = refGraph.resolveClosure(answer, name -> false);
+        var removed = new ArrayList<String>();
+        definitions.fieldNames().forEachRemaining(name -> {
+            if (!reachable.contains(name)) {
+                removed.add(name);
+            }
+        });
+        definitions.remove(removed);
+        // put the definitions back where they were
+        var reordered = answer.objectNode();
+        yamlDslSchema.withObject("/items").fieldNames().forEachRemaining(
+                name -> reordered.set(name, "definitions".equals(name) ? definitions : items.get(name)));
+        answer.set("items", reordered);
+        return new ReachableSchema(answer, removed);
+    }
+
+    private String normalizeRef(ObjectNode refParent) {
+        var name = getNameFromRef(refParent);
+        refParent.put("$ref", "#/items/definitions/" + name);
+        return name;
+    }
+
+    /**
+     * Get a new view of the relocated definitions. The relocated definitions are built once on the
+     * first call, each caller gets its own view so it can modify what it gets from there.
+     */
+    private synchronized DefinitionsView getRelocatedDefinitions() {
+        if (relocatedDefinitionsModel == null) {
+            var definitions = yamlDslSchema
+                    .withObject("/items")
+                    .withObject("/definitions");
+            relocatedDefinitionsModel = relocateToRootDefinitions(definitions);
+        }
+        return new DefinitionsView(relocatedDefinitionsModel);
+    }
+
     private ObjectNode relocateToRootDefinitions(ObjectNode definitions) {
         var relocatedDefinitions = definitions.deepCopy();
         relocatedDefinitions.findParents("$ref").stream()
@@ -97,26 +174,20 @@ public class CamelYamlDslSchemaProcessor {
         return parent.get("$ref").asText().replace("#/items/definitions/", "#/definitions/");
     }
 
-    private String doProcessSubSchema(
+    private ObjectNode doProcessSubSchema(
             java.util.Map.Entry<String, JsonNode> prop,
-            ObjectNode definitions,
+            DefinitionsView definitions,
+            SchemaRefGraph refGraph,
             ObjectNode rootSchema
     ) {
         var answer = (ObjectNode) prop.getValue().deepCopy();
         if (answer.has("$ref") && definitions.has(getNameFromRef(answer))) {
-            answer = definitions.withObject("/" + getNameFromRef(answer)).deepCopy();
+            answer = definitions.get(getNameFromRef(answer)).deepCopy();
 
         }
         answer.set("$schema", rootSchema.get("$schema"));
-        populateDefinitions(answer, definitions);
-        var writer = new StringWriter();
-        try {
-            JsonGenerator gen = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-            jsonMapper.writeTree(gen, answer);
-            return writer.toString();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        populateDefinitions(answer, refGraph);
+        return answer;
     }
 
     private String getNameFromRef(ObjectNode parent) {
@@ -125,23 +196,17 @@ public class CamelYamlDslSchemaProcessor {
                 : ref.replace("#/definitions/", "");
     }
 
-    private void populateDefinitions(ObjectNode schema, ObjectNode definitions) {
-        boolean added = true;
-        while(added) {
-            added = false;
-            for (JsonNode refParent : schema.findParents("$ref")) {
-                var name = getNameFromRef((ObjectNode) refParent);
-                if (processorReferenceBlockList.contains(name)) {
-                    continue;
-                }
-                if (!schema.has("definitions") || !schema.withObject("/definitions").has(name)) {
-                    var schemaDefinitions = schema.withObject("/definitions");
-                    schemaDefinitions.set(name, definitions.withObject("/" + name));
-                    added = true;
-                    break;
-                }
-            }
-        }
+    private void populateDefinitions(ObjectNode schema, DefinitionsView definitions) {
+        // the definitions may be modified between the calls, so the graph is not kept
+        populateDefinitions(schema, createRefGraph(definitions));
+    }
+
+    private void populateDefinitions(ObjectNode schema, SchemaRefGraph refGraph) {
+        refGraph.populateDefinitions(schema, processorReferenceBlockList::contains);
+    }
+
+    private SchemaRefGraph createRefGraph(DefinitionsView definitions) {
+        return new SchemaRefGraph(definitions::get, this::getNameFromRef);
     }
 
     /**
@@ -163,12 +228,9 @@ public class CamelYamlDslSchemaProcessor {
      * @return
      */
     public Map<String, ObjectNode> getProcessors() throws Exception {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
+        var relocatedDefinitions = getRelocatedDefinitions();
         var processors = relocatedDefinitions
-                .withObject(PROCESSOR_DEFINITION)
+                .get(PROCESSOR_DEFINITION)
                 .withObject("/properties");
 
         var answer = new LinkedHashMap<String, ObjectNode>();
@@ -177,7 +239,7 @@ public class CamelYamlDslSchemaProcessor {
             if (processorBlocklist.contains(processorFQCN)) {
                 continue;
             }
-            var processor = relocatedDefinitions.withObject("/" + processorFQCN);
+            var processor = relocatedDefinitions.get(processorFQCN);
             processor = extractFromOneOf(processorFQCN, processor);
             processor.remove("oneOf");
             processor = extractFromAnyOfOneOf(processorFQCN, processor);
@@ -325,16 +387,13 @@ public class CamelYamlDslSchemaProcessor {
         defToRemove.forEach(definitions::remove);
     }
     public Map<String, ObjectNode> getDataFormats() throws Exception {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
+        var relocatedDefinitions = getRelocatedDefinitions();
         var fromMarshal = relocatedDefinitions
-                .withObject("/org.apache.camel.model.MarshalDefinition")
+                .get("org.apache.camel.model.MarshalDefinition")
                 .withArray("/anyOf")
                 .get(0).withArray("/oneOf");
         var fromUnmarshal = relocatedDefinitions
-                .withObject("/org.apache.camel.model.UnmarshalDefinition")
+                .get("org.apache.camel.model.UnmarshalDefinition")
                 .withArray("/anyOf")
                 .get(0).withArray("/oneOf");
         if (fromMarshal.size() != fromUnmarshal.size()) {
@@ -353,7 +412,7 @@ public class CamelYamlDslSchemaProcessor {
                     .withObject("/properties")
                     .withObject("/" + entryName);
             var entryDefinitionName = getNameFromRef(property);
-            var dataformat = relocatedDefinitions.withObject("/" + entryDefinitionName);
+            var dataformat = relocatedDefinitions.get(entryDefinitionName);
             if (!dataformat.has("oneOf")) {
                 populateDefinitions(dataformat, relocatedDefinitions);
                 answer.put(entryName, dataformat);
@@ -382,12 +441,9 @@ public class CamelYamlDslSchemaProcessor {
     }
 
     public Map<String, ObjectNode> getLanguages() throws Exception {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
+        var relocatedDefinitions = getRelocatedDefinitions();
         var languages = relocatedDefinitions
-                .withObject("/org.apache.camel.model.language.ExpressionDefinition")
+                .get("org.apache.camel.model.language.ExpressionDefinition")
                 .withArray("/anyOf").get(0)
                 .withArray("/oneOf");
 
@@ -401,7 +457,7 @@ public class CamelYamlDslSchemaProcessor {
                     .withObject("/properties")
                     .withObject("/" + entryName);
             var entryDefinitionName = getNameFromRef(property);
-            var language = relocatedDefinitions.withObject("/" + entryDefinitionName);
+            var language = relocatedDefinitions.get(entryDefinitionName);
             if (!language.has("oneOf")) {
                 populateDefinitions(language, relocatedDefinitions);
                 answer.put(entryName, language);
@@ -449,10 +505,7 @@ public class CamelYamlDslSchemaProcessor {
      * @return
      */
     public Map<String, ObjectNode> getEntities() throws Exception {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
+        var relocatedDefinitions = getRelocatedDefinitions();
         var yamlIn = yamlDslSchema
                 .withObject("/items")
                 .withObject("/properties");
@@ -462,7 +515,7 @@ public class CamelYamlDslSchemaProcessor {
             var yamlInName = yamlInRef.getKey();
             var yamlInRefValue = (ObjectNode) yamlInRef.getValue();
             var yamlInFQCN = getNameFromRef((ObjectNode)yamlInRefValue);
-            var yamlInDefinition = relocatedDefinitions.withObject("/" + yamlInFQCN);
+            var yamlInDefinition = relocatedDefinitions.get(yamlInFQCN);
             yamlInDefinition = extractFromOneOf(yamlInFQCN, yamlInDefinition);
             yamlInDefinition.remove("oneOf");
             yamlInDefinition = extractFromAnyOfOneOf(yamlInFQCN, yamlInDefinition);
@@ -504,32 +557,23 @@ public class CamelYamlDslSchemaProcessor {
     }
 
     public ObjectNode getRouteTemplateBean() {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
-        var answer = relocatedDefinitions.withObject(ROUTE_TEMPLATE_BEAN_DEFINITION);
+        var relocatedDefinitions = getRelocatedDefinitions();
+        var answer = relocatedDefinitions.get(ROUTE_TEMPLATE_BEAN_DEFINITION);
         populateDefinitions(answer, relocatedDefinitions);
         return answer;
     }
 
     public ObjectNode getTemplatedRouteBean() {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
-        var answer = relocatedDefinitions.withObject(TEMPLATED_ROUTE_BEAN_DEFINITION);
+        var relocatedDefinitions = getRelocatedDefinitions();
+        var answer = relocatedDefinitions.get(TEMPLATED_ROUTE_BEAN_DEFINITION);
         populateDefinitions(answer, relocatedDefinitions);
         return answer;
     }
 
     public Map<String, ObjectNode> getLoadBalancers() throws Exception {
-        var definitions = yamlDslSchema
-                .withObject("/items")
-                .withObject("/definitions");
-        var relocatedDefinitions = relocateToRootDefinitions(definitions);
+        var relocatedDefinitions = getRelocatedDefinitions();
         var loadBalancerAnyOfOneOf = relocatedDefinitions
-                .withObject("/" + LOAD_BALANCE_DEFINITION)
+                .get(LOAD_BALANCE_DEFINITION)
                 .withArray("/anyOf").get(0)
                 .withArray("/oneOf");
 
@@ -546,7 +590,7 @@ public class CamelYamlDslSchemaProcessor {
                     .withObject("/properties")
                     .withObject("/" + entryName);
             var entryDefinitionName = getNameFromRef(property);
-            var loadBalancer = relocatedDefinitions.withObject("/" + entryDefinitionName);
+            var loadBalancer = relocatedDefinitions.get(entryDefinitionName);
             if (loadBalancer.has("oneOf")) {
                 var lbOneOf = loadBalancer.withArray("/oneOf");
                 if (lbOneOf.size() != 2) {
@@ -582,4 +626,28 @@ public class CamelYamlDslSchemaProcessor {
         }
         return answer;
     }
+
+    /**
+     * A view over the shared relocated definitions. A definition is copied the first time it's
+     * accessed and the same copy is handed out afterwards, so that the caller can modify the
+     * definitions it works on, paying only for the ones it actually touches.
+     */
+    private static class DefinitionsView {
+        private final ObjectNode source;
+        private final Map<String, ObjectNode> copies = new HashMap<>();
+
+        private DefinitionsView(ObjectNode source) {
+            this.source = source;
+        }
+
+        private boolean has(String name) {
+            return copies.containsKey(name) || source.has(name);
+        }
+
+        private ObjectNode get(String name) {
+            return copies.computeIfAbsent(name, key -> source.has(key)
+                    ? (ObjectNode) source.get(key).deepCopy()
+                    : source.objectNode());
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Concatenates generated files into a single archive, along with a table of contents which gives
+ * the offset and the length of each of them, so that a client can fetch a single file out of the
+ * archive with an HTTP {@code Range} request. The files are stored as they are, without any header
+ * or padding in between, i.e. a precompressed file is stored compressed.
+ */
+public class CatalogArchive {
+    public static final String JSON = "json";
+    public static final String GZIP = "gzip";
+    public static final String SMILE = "smile";
+    private final ObjectMapper jsonMapper;
+    private final ContentHasher hasher;
+    private final List<Source> sources = new ArrayList<>();
+    private final List<Part> parts = new ArrayList<>();
+
+    private record Source(String name, String encoding, Path file) {}
+
+    /**
+     * @param name the name of the file in the index, the same for all its encodings
+     * @param encoding how the content is encoded, {@value #JSON}, {@value #GZIP} or {@value #SMILE}
+     * @param offset the offset of the first byte in the archive
+     * @param length the number of bytes
+     * @param hash the content hash of the bytes
+     */
+    public record Part(String name, String encoding, long offset, long length, String hash) {}
+
+    public CatalogArchive(ObjectMapper jsonMapper, ContentHasher hasher) {
+        this.jsonMapper = jsonMapper;
+        this.hasher = hasher;
+    }
+
+    /**
+     * Add the file to the archive, the files are stored in the order they are added.
+     * @param name the name to look the file up in the table of contents
+     * @param encoding
+     * @param file
+     */
+    public void add(String name, String encoding, Path file) {
+        sources.add(new Source(name, encoding, file));
+    }
+
+    /**
+     * Write the archive into {@code <prefix>-<hash>.bin}.
+     * @param fileWriter
+     * @param prefix
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String write(HashedFileWriter fileWriter, String prefix) throws Exception {
+        parts.clear();
+        return fileWriter.write(prefix, "bin", out -> {
+            long offset = 0;
+            for (var source : sources) {
+                // the part is hashed on its way into the archive rather than read once more
+                var digest = hasher.newDigest();
+                var length = Files.copy(source.file(), new DigestOutputStream(out, digest));
+                var hash = hasher.format(digest.digest());
+                parts.add(new Part(source.name(), source.encoding(), offset, length, hash));
+                offset += length;
+            }
+        });
+    }
+
+    /**
+     * The parts of the last written archive.
+     * @return
+     */
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * Create the table of contents of the last written archive.
+     * @param archiveFileName the name of the written archive
+     * @return
+     */
+    public ObjectNode createTableOfContents(String archiveFileName) {
+        var toc = jsonMapper.createObjectNode();
+        toc.put("archive", archiveFileName);
+        toc.put("size", parts.stream().mapToLong(Part::length).sum());
+        toc.put("hashAlgorithm", hasher.getAlgorithm());
+        toc.set("entries", jsonMapper.valueToTree(parts));
+        return toc;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import org.apache.camel.catalog.DefaultCamelCatalog;
+import org.apache.camel.catalog.Kind;
+import org.apache.camel.tooling.model.ComponentModel;
+import org.apache.camel.tooling.model.EipModel;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the component and EIP models of the Camel catalog, so that each model JSON is loaded
+ * and parsed from the camel-catalog jar only once. Each kind is loaded on first access.
+ * The models are shared, they must not be modified.
+ */
+public class CatalogModelIndex {
+    private final DefaultCamelCatalog api;
+    private Map<String, ComponentModel> components;
+    private Map<String, EipModel> models;
+    private Map<String, EipModel> modelsByJavaType;
+
+    public CatalogModelIndex(DefaultCamelCatalog api) {
+        this.api = api;
+    }
+
+    /**
+     * Get all the component models keyed by name, in the order of the catalog.
+     * @return
+     */
+    public synchronized Map<String, ComponentModel> getComponents() {
+        if (components == null) {
+            var answer = new LinkedHashMap<String, ComponentModel>();
+            for (var name : api.findComponentNames()) {
+                answer.put(name, (ComponentModel) api.model(Kind.component, name));
+            }
+            components = Collections.unmodifiableMap(answer);
+        }
+        return components;
+    }
+
+    public ComponentModel getComponent(String name) {
+        return getComponents().get(name);
+    }
+
+    /**
+     * Get all the EIP models keyed by name, in the order of the catalog.
+     * @return
+     */
+    public synchronized Map<String, EipModel> getModels() {
+        if (models == null) {
+            var answer = new LinkedHashMap<String, EipModel>();
+            var answerByJavaType = new LinkedHashMap<String, EipModel>();
+            for (var name : api.findModelNames()) {
+                var model = (EipModel) api.model(Kind.eip, name);
+                answer.put(name, model);
+                answerByJavaType.put(model.getJavaType(), model);
+            }
+            models = Collections.unmodifiableMap(answer);
+            modelsByJavaType = Collections.unmodifiableMap(answerByJavaType);
+        }
+        return models;
+    }
+
+    public EipModel getModel(String name) {
+        return getModels().get(name);
+    }
+
+    /**
+     * Get the EIP model for the model class, e.g. {@code org.apache.camel.model.ToDynamicDefinition}.
+     * @param javaType
+     * @return
+     */
+    public EipModel getModelByJavaType(String javaType) {
+        getModels();
+        return modelsByJavaType.get(javaType);
+    }
+}
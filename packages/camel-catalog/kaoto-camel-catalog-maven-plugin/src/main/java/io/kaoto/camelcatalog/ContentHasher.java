@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Computes the content hash used in the names of the generated files. The hash is always
+ * formatted as fixed-width lowercase hex, e.g. 32 characters for MD5.
+ * Supported algorithms are the ones of {@link MessageDigest} such as {@code MD5} and
+ * {@code SHA-256}, plus {@value #MURMUR3_128}, a fast non-cryptographic 128-bit hash.
+ */
+public class ContentHasher {
+    public static final String MD5 = "MD5";
+    public static final String MURMUR3_128 = "MURMUR3-128";
+
+    private final String algorithm;
+
+    /**
+     * @param algorithm
+     * @throws Exception if the algorithm is not supported
+     */
+    public ContentHasher(String algorithm) throws Exception {
+        this.algorithm = algorithm;
+        // fail early for an unknown algorithm
+        newDigest();
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Create a new digest, to compute the hash incrementally while the content is written or copied,
+     * e.g. with {@link java.security.DigestOutputStream}.
+     * @return
+     * @throws Exception
+     */
+    public MessageDigest newDigest() throws Exception {
+        if (MURMUR3_128.equalsIgnoreCase(algorithm)) {
+            return new Murmur3Digest();
+        }
+        return MessageDigest.getInstance(algorithm);
+    }
+
+    public String format(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    public String hash(byte[] content) throws Exception {
+        return format(newDigest().digest(content));
+    }
+
+    public String hash(String content) throws Exception {
+        return hash(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hash the file content without reading it into memory at once.
+     * @param path
+     * @return
+     * @throws Exception
+     */
+    public String hash(Path path) throws Exception {
+        var digest = newDigest();
+        try (InputStream is = new DigestInputStream(Files.newInputStream(path), digest)) {
+            is.transferTo(OutputStream.nullOutputStream());
+        }
+        return format(digest.digest());
+    }
+}
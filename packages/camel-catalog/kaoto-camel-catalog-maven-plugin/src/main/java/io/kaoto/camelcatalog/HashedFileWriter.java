@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes content into the output directory under a content-hashed file name. The content is
+ * streamed into a temporary file while the hash is computed, then the file is renamed, so that
+ * the content is never held in memory just for the sake of hashing it.
+ */
+public class HashedFileWriter {
+    public static final String GZIP_EXTENSION = ".gz";
+    public static final String SMILE_EXTENSION = ".smile";
+    private static final String JSON_EXTENSION = ".json";
+    private final ObjectMapper jsonMapper;
+    private final Path outputDir;
+    private final ContentHasher hasher;
+    // the generators are closed with the content, the stream is closed by its owner
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private final SmileFactory smileFactory = SmileFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build();
+    private boolean pretty = true;
+    private boolean precompress;
+    private boolean smile;
+
+    public HashedFileWriter(ObjectMapper jsonMapper, Path outputDir) throws Exception {
+        this(jsonMapper, outputDir, new ContentHasher(ContentHasher.MD5));
+    }
+
+    public HashedFileWriter(ObjectMapper jsonMapper, Path outputDir, ContentHasher hasher) {
+        this.jsonMapper = jsonMapper;
+        this.outputDir = outputDir;
+        this.hasher = hasher;
+    }
+
+    /**
+     * Also write a gzip compressed sibling {@code <file>.gz} of each file with the best compression
+     * level, so that a web server can serve it as is instead of compressing it on each request.
+     * @param precompress
+     */
+    public void setPrecompress(boolean precompress) {
+        this.precompress = precompress;
+    }
+
+    /**
+     * Pretty print the JSON trees, on by default. The strings and the copied files are written as
+     * they are.
+     * @param pretty
+     */
+    public void setPretty(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    /**
+     * Also write the JSON trees in the binary Smile format into {@code <prefix>-<hash>.smile},
+     * next to {@code <prefix>-<hash>.json}. The hash is the one of the JSON. Shared property names
+     * and string values are written as back references.
+     * @param smile
+     */
+    public void setSmile(boolean smile) {
+        this.smile = smile;
+    }
+
+    /**
+     * Get the names of the files which may be written next to the file, e.g. its precompressed
+     * variant.
+     * @param fileName
+     * @return
+     */
+    public static List<String> getSiblingFileNames(String fileName) {
+        if (fileName.endsWith(JSON_EXTENSION)) {
+            return List.of(fileName + GZIP_EXTENSION, getSmileFileName(fileName));
+        }
+        return List.of(fileName + GZIP_EXTENSION);
+    }
+
+    public static String getSmileFileName(String jsonFileName) {
+        return jsonFileName.substring(0, jsonFileName.length() - JSON_EXTENSION.length()) + SMILE_EXTENSION;
+    }
+
+    /**
+     * Writes the content into the given stream.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    /**
+     * Write the tree pretty-printed into {@code <prefix>-<hash>.json}.
+     * @param prefix
+     * @param tree
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String write(String prefix, JsonNode tree) throws Exception {
+        return write(prefix, tree, pretty);
+    }
+
+    /**
+     * Write the JSON tree into {@code <prefix>-<hash>.json}, regardless of the pretty print setting.
+     * @param prefix
+     * @param tree
+     * @param pretty whether to pretty print the JSON
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String write(String prefix, JsonNode tree, boolean pretty) throws Exception {
+        var fileName = write(prefix, "json", out -> {
+            try (var jsonGenerator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+                if (pretty) {
+                    jsonGenerator.useDefaultPrettyPrinter();
+                }
+                jsonMapper.writeTree(jsonGenerator, tree);
+            }
+        });
+        var smileFile = outputDir.resolve(getSmileFileName(fileName));
+        if (smile) {
+            writeTemporary(smileFile, out -> {
+                try (var smileGenerator = smileFactory.createGenerator(out)) {
+                    jsonMapper.writeTree(smileGenerator, tree);
+                }
+            });
+        } else {
+            Files.deleteIfExists(smileFile);
+        }
+        return fileName;
+    }
+
+    /**
+     * Write the text encoded in UTF-8 into {@code <prefix>-<hash>.json}.
+     * @param prefix
+     * @param content
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String write(String prefix, String content) throws Exception {
+        return write(prefix, "json", out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Copy the file into {@code <prefix>-<hash>.<extension>}.
+     * @param source
+     * @param prefix
+     * @param extension
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String copy(Path source, String prefix, String extension) throws Exception {
+        return write(prefix, extension, out -> Files.copy(source, out));
+    }
+
+    /**
+     * Write the content into {@code <prefix>-<hash>.<extension>}.
+     * @param prefix
+     * @param extension
+     * @param contentWriter
+     * @return the name of the written file
+     * @throws Exception
+     */
+    public String write(String prefix, String extension, ContentWriter contentWriter) throws Exception {
+        var digest = hasher.newDigest();
+        var tempFile = createTempFile(prefix);
+        try {
+            try (var out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)), digest)) {
+                contentWriter.writeTo(out);
+            }
+            var fileName = String.format("%s-%s.%s", prefix, hasher.format(digest.digest()), extension);
+            var output = outputDir.resolve(fileName);
+            Files.move(tempFile, output, StandardCopyOption.REPLACE_EXISTING);
+            if (precompress) {
+                gzip(output);
+            } else {
+                // a leftover from a previous precompressed build would be served with the wrong content
+                Files.deleteIfExists(outputDir.resolve(fileName + GZIP_EXTENSION));
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Delete the files {@code <prefix>-*<extension>} but the current one, along with their
+     * siblings. The files which are not part of any stage, e.g. the boot bundle, are not cleaned
+     * up by the incremental build.
+     * @param prefix
+     * @param extension
+     * @param current the name of the file to keep
+     * @throws Exception
+     */
+    public void deleteStale(String prefix, String extension, String current) throws Exception {
+        try (var files = Files.list(outputDir)) {
+            var stale = files.map(file -> file.getFileName().toString())
+                    .filter(fileName -> fileName.startsWith(prefix + "-") && fileName.endsWith(extension))
+                    .filter(fileName -> !fileName.equals(current))
+                    .toList();
+            for (var fileName : stale) {
+                Files.deleteIfExists(outputDir.resolve(fileName));
+                for (var sibling : getSiblingFileNames(fileName)) {
+                    Files.deleteIfExists(outputDir.resolve(sibling));
+                }
+            }
+        }
+    }
+
+    /**
+     * Unlike {@link Files#createTempFile}, which restricts the file to the owner, this gets the
+     * default permissions, as the file ends up being published.
+     */
+    private Path createTempFile(String prefix) {
+        return outputDir.resolve(String.format(".%s-%s.tmp", prefix, UUID.randomUUID()));
+    }
+
+    private void gzip(Path file) throws Exception {
+        writeTemporary(file.resolveSibling(file.getFileName() + GZIP_EXTENSION), out -> {
+            try (var gzipOut = new GZIPOutputStream(out, 64 * 1024) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                Files.copy(file, gzipOut);
+            }
+        });
+    }
+
+    /**
+     * Write the content into a temporary file, then move it to the target, so that the target is
+     * never seen half written.
+     */
+    private void writeTemporary(Path target, ContentWriter contentWriter) throws Exception {
+        var tempFile = createTempFile(target.getFileName().toString());
+        try {
+            try (var out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                contentWriter.writeTo(out);
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
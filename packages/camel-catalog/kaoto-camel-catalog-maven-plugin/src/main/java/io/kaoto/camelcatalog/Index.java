@@ -15,10 +15,35 @@
  */
 package io.kaoto.camelcatalog;
 
-import java.util.HashMap;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @param size the size of the file in bytes, only recorded along with precompressed files
+ * @param gzipSize the size of the gzip compressed sibling of the file
+ * @param encodings the encodings the file is available in, e.g. "json" and "smile", only recorded
+ *                  when binary encodings are enabled
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record Entry(String name, String description, String version, String file, Long size, Long gzipSize,
+             List<String> encodings) {
+    Entry(String name, String description, String version, String file) {
+        this(name, description, version, file, null, null, null);
+    }
 
-record Entry(String name, String description, String version, String file) {}
+    Entry withSizes(Long size, Long gzipSize) {
+        return new Entry(name, description, version, file, size, gzipSize, encodings);
+    }
+
+    Entry withEncodings(List<String> encodings) {
+        return new Entry(name, description, version, file, size, gzipSize, encodings);
+    }
+}
 
 public class Index {
     public static final String COMPONENTS = "components";
@@ -26,9 +51,12 @@ public class Index {
     public static final String LANGUAGES = "languages";
     public static final String MODELS = "models";
 
-    private Map<String, Entry> catalogs = new HashMap<>();
+    // stages may run concurrently and register their entries at the same time
+    private Map<String, Entry> catalogs = new ConcurrentHashMap<>();
+
+    private Map<String, Entry> schemas = new ConcurrentHashMap<>();
 
-    private Map<String, Entry> schemas = new HashMap<>();
+    private final Set<String> referencedFiles = ConcurrentHashMap.newKeySet();
 
     public Map<String, Entry> getCatalogs() {
         return catalogs;
@@ -36,4 +64,14 @@ public class Index {
     public Map<String, Entry> getSchemas() {
         return schemas;
     }
+
+    /**
+     * The generated files which are not listed in the index, but referenced from other generated
+     * files, e.g. the catalog shards referenced from a catalog summary.
+     * @return
+     */
+    @JsonIgnore
+    public Set<String> getReferencedFiles() {
+        return referencedFiles;
+    }
 }
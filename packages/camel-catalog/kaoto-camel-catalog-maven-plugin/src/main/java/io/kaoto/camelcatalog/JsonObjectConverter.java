@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.camel.tooling.model.ComponentModel;
+import org.apache.camel.tooling.model.EipModel;
+import org.apache.camel.tooling.model.JsonMapper;
+import org.apache.camel.util.json.Jsonable;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Convert the camel-util {@link org.apache.camel.util.json.JsonObject} representation of the Camel
+ * tooling models straight into a Jackson tree, without serializing it into a JSON string and
+ * parsing it again. The resulting tree is the same as what {@code jsonMapper.readTree(jsonObject.toJson())}
+ * returns.
+ */
+public class JsonObjectConverter {
+    private final ObjectMapper jsonMapper;
+    private final JsonNodeFactory nodeFactory;
+
+    public JsonObjectConverter(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.nodeFactory = jsonMapper.getNodeFactory();
+    }
+
+    public ObjectNode asObjectNode(ComponentModel model) throws Exception {
+        return asObjectNode(JsonMapper.asJsonObject(model));
+    }
+
+    public ObjectNode asObjectNode(EipModel model) throws Exception {
+        return asObjectNode(JsonMapper.asJsonObject(model));
+    }
+
+    public ObjectNode asObjectNode(Map<?, ?> jsonObject) throws Exception {
+        var answer = nodeFactory.objectNode();
+        for (var entry : jsonObject.entrySet()) {
+            answer.set(String.valueOf(entry.getKey()), asJsonNode(entry.getValue()));
+        }
+        return answer;
+    }
+
+    private ArrayNode asArrayNode(Collection<?> jsonArray) throws Exception {
+        var answer = nodeFactory.arrayNode(jsonArray.size());
+        for (var value : jsonArray) {
+            answer.add(asJsonNode(value));
+        }
+        return answer;
+    }
+
+    /**
+     * Follow the rules of {@link org.apache.camel.util.json.Jsoner#serialize(Object)} and the
+     * Jackson parser, so that the value ends up in the same node type it would get from parsing.
+     */
+    private JsonNode asJsonNode(Object value) throws Exception {
+        if (value == null) {
+            return nodeFactory.nullNode();
+        } else if (value instanceof String text) {
+            return nodeFactory.textNode(text);
+        } else if (value instanceof Boolean bool) {
+            return nodeFactory.booleanNode(bool);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return nodeFactory.numberNode(((Number) value).intValue());
+        } else if (value instanceof Long number) {
+            return number == number.intValue()
+                    ? nodeFactory.numberNode(number.intValue())
+                    : nodeFactory.numberNode(number.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            var number = (Number) value;
+            if (Double.isNaN(number.doubleValue()) || Double.isInfinite(number.doubleValue())) {
+                return nodeFactory.nullNode();
+            }
+            // Float is written with its own toString(), then parsed as a double
+            return nodeFactory.numberNode(Double.parseDouble(number.toString()));
+        } else if (value instanceof Map<?, ?> map) {
+            return asObjectNode(map);
+        } else if (value instanceof Collection<?> collection) {
+            return asArrayNode(collection);
+        } else if (value instanceof Enum<?> enumValue) {
+            return nodeFactory.textNode(enumValue.getDeclaringClass().getName() + "." + enumValue.name());
+        } else if (value.getClass().isArray()) {
+            var length = Array.getLength(value);
+            var answer = nodeFactory.arrayNode(length);
+            for (int i = 0; i < length; i++) {
+                answer.add(asJsonNode(Array.get(value, i)));
+            }
+            return answer;
+        } else if (value instanceof Jsonable jsonable) {
+            return jsonMapper.readTree(jsonable.toJson());
+        }
+        // other numbers such as BigDecimal are rare, let the parser decide
+        return jsonMapper.readTree(value.toString());
+    }
+}
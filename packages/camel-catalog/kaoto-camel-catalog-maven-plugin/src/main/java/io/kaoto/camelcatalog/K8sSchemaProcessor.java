@@ -17,28 +17,146 @@ package io.kaoto.camelcatalog;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Process Kubernetes OpenAPI specification JSON.
  */
 public class K8sSchemaProcessor {
+    private static final String SCHEMAS_REF_PREFIX = "#/components/schemas/";
+    private static final String DEFINITIONS_REF_PREFIX = "#/definitions/";
+    private static final String KUBERNETES_KEYWORD_PREFIX = "x-kubernetes";
     private final ObjectMapper jsonMapper;
     private final ObjectNode openApiSpec;
+    private final SchemaRewriter rewriter = new SchemaRewriter(List.of(
+            removeKubernetesKeywords(),
+            SchemaRewriter.rewriteRefs(ref -> ref.startsWith(SCHEMAS_REF_PREFIX)
+                    ? DEFINITIONS_REF_PREFIX + ref.substring(SCHEMAS_REF_PREFIX.length())
+                    : ref)));
 
     public K8sSchemaProcessor(ObjectMapper mapper, ObjectNode k8sOpenApiSpec) {
         this.jsonMapper = mapper;
         this.openApiSpec = k8sOpenApiSpec;
     }
 
+    /**
+     * Create a processor for the given definitions without reading the whole OpenAPI spec into a
+     * tree. The spec is streamed, the schemas which are not needed are skipped, and only the given
+     * definitions and the ones they transitively refer to are read, without their "x-kubernetes-*"
+     * keywords. The spec is streamed once more for each level of references.
+     * @param mapper
+     * @param k8sOpenApiSpec the path of the OpenAPI spec JSON
+     * @param definitions the definitions to be processed later on
+     * @return
+     * @throws IOException
+     */
+    public static K8sSchemaProcessor stream(ObjectMapper mapper, Path k8sOpenApiSpec, List<String> definitions)
+            throws IOException {
+        var spec = mapper.createObjectNode();
+        var schemas = spec.withObject("/components/schemas");
+        var searched = new HashSet<String>();
+        Set<String> missing = definitions == null ? Set.of() : new LinkedHashSet<>(definitions);
+        while (!missing.isEmpty()) {
+            searched.addAll(missing);
+            var found = readSchemas(mapper, k8sOpenApiSpec, missing);
+            schemas.setAll(found);
+            missing = new LinkedHashSet<>();
+            for (var schema : found.values()) {
+                for (var ref : schema.findValues("$ref")) {
+                    var refText = ref.asText();
+                    if (refText.startsWith(SCHEMAS_REF_PREFIX)) {
+                        var name = refText.substring(SCHEMAS_REF_PREFIX.length());
+                        if (!searched.contains(name)) {
+                            missing.add(name);
+                        }
+                    }
+                }
+            }
+        }
+        return new K8sSchemaProcessor(mapper, spec);
+    }
+
+    private static Map<String, ObjectNode> readSchemas(ObjectMapper mapper, Path k8sOpenApiSpec, Set<String> names)
+            throws IOException {
+        var answer = new LinkedHashMap<String, ObjectNode>();
+        try (var parser = mapper.getFactory().createParser(k8sOpenApiSpec.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return answer;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !"components".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    var componentField = parser.currentName();
+                    if (parser.nextToken() != JsonToken.START_OBJECT || !"schemas".equals(componentField)) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        var name = parser.currentName();
+                        parser.nextToken();
+                        if (!names.contains(name)) {
+                            parser.skipChildren();
+                            continue;
+                        }
+                        if (readWithoutKubernetesKeywords(mapper, parser) instanceof ObjectNode schema) {
+                            answer.put(name, schema);
+                        }
+                        if (answer.size() == names.size()) {
+                            return answer;
+                        }
+                    }
+                }
+            }
+        }
+        return answer;
+    }
+
+    private static JsonNode readWithoutKubernetesKeywords(ObjectMapper mapper, JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                var node = mapper.createObjectNode();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    var field = parser.currentName();
+                    parser.nextToken();
+                    if (field.startsWith(KUBERNETES_KEYWORD_PREFIX)) {
+                        parser.skipChildren();
+                    } else {
+                        node.set(field, readWithoutKubernetesKeywords(mapper, parser));
+                    }
+                }
+                return node;
+            }
+            case START_ARRAY -> {
+                var node = mapper.createArrayNode();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    node.add(readWithoutKubernetesKeywords(mapper, parser));
+                }
+                return node;
+            }
+            default -> {
+                return mapper.readTree(parser);
+            }
+        }
+    }
+
     /**
      * Get k8s definitions schema from its OpenAPI spec.
      * @param definitions
@@ -47,75 +165,58 @@ public class K8sSchemaProcessor {
      */
     public Map<String, String> processK8sDefinitions(List<String> definitions) throws Exception {
         var answer = new LinkedHashMap<String, String>();
+        for (var entry : getK8sDefinitions(definitions).entrySet()) {
+            var writer = new StringWriter();
+            JsonGenerator jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
+            jsonMapper.writeTree(jsonGenerator, entry.getValue());
+            answer.put(entry.getKey(), writer.toString());
+        }
+        return answer;
+    }
+
+    /**
+     * Get k8s definitions schema from its OpenAPI spec as JSON trees. The referenced definitions are
+     * the nodes of the spec, rewritten in place, so they're shared among the returned schemas.
+     * @param definitions
+     * @return
+     */
+    public Map<String, ObjectNode> getK8sDefinitions(List<String> definitions) {
+        var answer = new LinkedHashMap<String, ObjectNode>();
         var k8sSchemas = openApiSpec.withObject("/components/schemas");
         if (definitions == null) {
             return answer;
         }
+        var refGraph = new SchemaRefGraph(name -> k8sSchemas.withObject("/" + name), this::getRefName);
         for (String name : definitions) {
             var definition = jsonMapper.createObjectNode();
             definition.put("$schema", "http://json-schema.org/draft-07/schema#");
             definition.put("additionalProperties", false);
             definition.setAll(k8sSchemas.withObject("/" + name));
-            populateReferences(definition, k8sSchemas);
-            definition = removeKubernetesCustomKeywords(definition);
+            refGraph.populateDefinitions(definition, ref -> false);
+            // the definitions are the nodes of the spec, the ref graph resolves both the original and the rewritten refs
+            rewriter.rewrite(definition);
             var nameSplit = name.split("\\.");
             var displayName = nameSplit[nameSplit.length - 1];
             // ATM we use only few of k8s schemas, so use the short name until we see a conflict
-            var writer = new StringWriter();
-            JsonGenerator jsonGenerator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
-            jsonMapper.writeTree(jsonGenerator, definition);
-            answer.put(displayName, writer.toString());
+            answer.put(displayName, definition);
         }
         return answer;
     }
 
-    private void populateReferences(ObjectNode definition, ObjectNode k8sSchemas) {
-        var added = true;
-        while (added) {
-            added = false;
-            for (JsonNode refParent : definition.findParents("$ref")) {
-                var ref = refParent.get("$ref").asText();
-                if (ref.startsWith("#/components")) {
-                    ((ObjectNode)refParent).put("$ref", ref.replace("#/components/schemas", "#/definitions"));
-                    ref = refParent.get("$ref").asText();
-                }
-                var name = ref.replace("#/definitions/", "");
-                if (!definition.has("definitions") || !definition.withObject("/definitions").has(name)) {
-                    var additionalDefinitions = definition.withObject("/definitions");
-                    additionalDefinitions.set(name, k8sSchemas.withObject("/" + name));
-                    added = true;
-                    break;
-                }
-            }
-        }
-    }
-
-    private ObjectNode removeKubernetesCustomKeywords(ObjectNode definition) {
-        var modified = jsonMapper.createObjectNode();
-        definition.fields().forEachRemaining(node -> {
-            if (!node.getKey().startsWith("x-kubernetes")) {
-                var value = node.getValue();
-                if (value.isObject()) {
-                    value = removeKubernetesCustomKeywords((ObjectNode)value);
-                } else if (value.isArray()) {
-                    value = removeKubernetesCustomKeywordsFromArrayNode((ArrayNode)value);
-                }
-                modified.set(node.getKey(), value);
-            }
-        });
-        return modified;
+    /**
+     * The rule which removes the Kubernetes specific "x-kubernetes-*" keywords, which are not
+     * JSON schema keywords.
+     * @return
+     */
+    public static SchemaRewriter.Rule removeKubernetesKeywords() {
+        return SchemaRewriter.removeKeywords(keyword -> keyword.startsWith(KUBERNETES_KEYWORD_PREFIX));
     }
 
-    private ArrayNode removeKubernetesCustomKeywordsFromArrayNode(ArrayNode definition) {
-        var modified = jsonMapper.createArrayNode();
-        definition.forEach(node -> {
-            if (node.isObject()) {
-                node = removeKubernetesCustomKeywords((ObjectNode)node);
-            } else if (node.isArray()) {
-                node = removeKubernetesCustomKeywordsFromArrayNode((ArrayNode)node);
-            }
-            modified.add(node);
-        });
-        return modified;
+    private String getRefName(ObjectNode refParent) {
+        var ref = refParent.get("$ref").asText();
+        if (ref.startsWith(SCHEMAS_REF_PREFIX)) {
+            return ref.substring(SCHEMAS_REF_PREFIX.length());
+        }
+        return ref.replace(DEFINITIONS_REF_PREFIX, "");
     }
 }
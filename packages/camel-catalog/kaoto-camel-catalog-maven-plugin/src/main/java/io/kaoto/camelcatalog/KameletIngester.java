@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Reads Kamelet definition files into a single object keyed by the Kamelet name. Each file is
+ * parsed and processed with {@link KameletProcessor} on a fork-join pool if the parallelism is
+ * greater than 1, then the Kamelets are aggregated on the calling thread in the order of the files,
+ * so that the first file of a name wins whichever is parsed first. A failing file doesn't stop the
+ * others, the failures are collected per file.
+ */
+public class KameletIngester {
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper yamlMapper;
+    private int parallelism = 1;
+
+    /**
+     * @param file the file which failed
+     * @param error
+     */
+    public record Failure(Path file, Exception error) {}
+
+    /**
+     * @param kamelets the Kamelet definitions keyed by the name
+     * @param failures the files which failed, in the order of the files
+     */
+    public record Result(ObjectNode kamelets, List<Failure> failures) {}
+
+    public KameletIngester(ObjectMapper jsonMapper, ObjectMapper yamlMapper) {
+        this.jsonMapper = jsonMapper;
+        this.yamlMapper = yamlMapper;
+    }
+
+    /**
+     * Set the number of threads used to parse and process the files.
+     * @param parallelism 1 or less reads them on the calling thread
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Read the Kamelet definitions from the files. The name of a Kamelet is the file name up to the
+     * first dot. The YAML and JSON files are read, the other ones are skipped.
+     * @param files
+     * @return
+     * @throws Exception if the pool fails, the failures of the files are in the result
+     */
+    public Result ingest(List<Path> files) throws Exception {
+        var kamelets = new JsonNode[files.size()];
+        var failures = new Exception[files.size()];
+        IntConsumer read = i -> {
+            try {
+                kamelets[i] = read(files.get(i));
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        };
+        if (parallelism > 1) {
+            try (var pool = new ForkJoinPool(parallelism)) {
+                pool.submit(() -> IntStream.range(0, files.size()).parallel().forEach(read)).get();
+            }
+        } else {
+            IntStream.range(0, files.size()).forEach(read);
+        }
+
+        var answer = jsonMapper.createObjectNode();
+        var failed = new ArrayList<Failure>();
+        for (int i = 0; i < files.size(); i++) {
+            if (failures[i] != null) {
+                failed.add(new Failure(files.get(i), failures[i]));
+            } else if (kamelets[i] != null) {
+                answer.putIfAbsent(getName(files.get(i)), kamelets[i]);
+            }
+        }
+        return new Result(answer, failed);
+    }
+
+    private JsonNode read(Path file) throws Exception {
+        var fileName = file.getFileName().toString();
+        if (fileName.split("\\.").length < 2) {
+            throw new Exception("Invalid file name: " + fileName);
+        }
+        var lowerFileName = fileName.toLowerCase();
+        ObjectMapper mapper;
+        if (lowerFileName.endsWith(".yaml") || lowerFileName.endsWith(".yml")) {
+            mapper = yamlMapper;
+        } else if (lowerFileName.endsWith(".json")) {
+            // Try JSON as a fallback
+            mapper = jsonMapper;
+        } else {
+            return null;
+        }
+        JsonNode kamelet;
+        try (var is = Files.newInputStream(file)) {
+            kamelet = mapper.readTree(is);
+        }
+        KameletProcessor.process((ObjectNode) kamelet);
+        return kamelet;
+    }
+
+    private static String getName(Path file) {
+        return file.getFileName().toString().split("\\.")[0];
+    }
+}
@@ -15,30 +15,37 @@
  */
 package io.kaoto.camelcatalog;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
-import java.io.OutputStreamWriter;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.camel.catalog.DefaultCamelCatalog;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 
-import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinition;
 
 /**
  * Collects the camel metadata files such as catalog and schema and
@@ -46,8 +53,8 @@ import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinition
  * This plugin expects the following directory structure under inputDirectory:
  * <ul>
  * <li>catalog/ - The root directory of extracted camel-catalog</li>
- * <li>crds/ - Holds Camel K CRD YAML files</li>
- * <li>kamelets/ - Holds Kamelet definition YAML files</li>
+ * <li>crds/ - Holds Camel K CRD YAML files, in addition to the ones in {@code crdsArchive}</li>
+ * <li>kamelets/ - Holds Kamelet definition YAML files, in addition to the ones in {@code kameletsArchive}</li>
  * <li>schema/ - Holds Camel YAML DSL JSON schema files</li>
  * </ul>
  * In addition to what is generated from above input files, this plugin
@@ -65,6 +72,18 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
     public static final String CAMEL_YAML_DSL = "camelYamlDsl";
     private static final String K8S_V1_OPENAPI = "kubernetes-api-v1-openapi";
     private static final String CAMEL_CATALOG_AGGREGATE = "camel-catalog-aggregate";
+    private static final String CAMEL_CATALOG = "camel-catalog";
+    private static final String PROPERTIES_SCHEMA_MAPPING = "propertiesSchemaMapping";
+    private static final String SHARED_DEFINITIONS = "sharedDefinitions";
+    /** The Camel catalogs in the index entry names, which are camel case unlike the file names. */
+    private static final String CAMEL_CATALOG_NAME = "camelCatalog";
+    /** The catalogs whose summary goes into the boot bundle. */
+    private static final List<String> BOOT_BUNDLE_SUMMARIES = List.of("patterns", "entities");
+    private static final String KAMELET_BOUNDARIES = "kameletBoundaries";
+    private static final String ARCHIVE = "catalog-archive";
+    private static final String ARCHIVE_TOC = "catalog-archive-toc";
+    private static final String ARCHIVE_NAME = "archive";
+    private static final List<String> SHARDED_CATALOGS = List.of("components", "models", "patterns");
     private static final String CRDS = "crds";
     private static final String CRD_SCHEMA = "crd-schema";
     private static final String KAMELET = "kamelet";
@@ -99,44 +118,409 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
     @Parameter
     private boolean generateSubSchema = true;
 
+    /**
+     * Stream the Kubernetes OpenAPI spec and read only the {@code kubernetesDefinitions} and the
+     * definitions they refer to, instead of reading the whole spec into memory.
+     */
+    @Parameter
+    private boolean streamKubernetesSpec = false;
+
+    /**
+     * Remove the Kubernetes specific "x-kubernetes-*" keywords from the Camel K CRD schemas, as it's
+     * done for the {@code kubernetesDefinitions}.
+     */
+    @Parameter
+    private boolean stripCRDKubernetesKeywords = false;
+
+    /**
+     * The version of the Camel K CRDs to take the schema from, {@code storage} for the stored version,
+     * {@code served} for the first served version, or the name of a version. The first version is
+     * taken by default.
+     */
+    @Parameter
+    private String crdVersion;
+
+    /**
+     * A jar to read the Camel K CRD files from, from its root folder, without unpacking it. The files
+     * in the crds/ folder of the inputDirectory override the ones with the same name in the jar,
+     * with a warning.
+     */
+    @Parameter
+    private File crdsArchive;
+
+    /** The names of the Camel K CRD files to process, all of them by default. */
+    @Parameter
+    private List<String> crdFiles;
+
+    /**
+     * A jar to read the Kamelet definitions from, from its kamelets/ folder, without unpacking it.
+     * The files in the kamelets/ folder of the inputDirectory override the ones with the same name
+     * in the jar, with a warning.
+     */
+    @Parameter
+    private File kameletsArchive;
+
+    /**
+     * Additional directories to read Kamelet definitions from, laid out like the kamelets/ folder of
+     * the inputDirectory. The files in a later directory override the ones with the same name in
+     * the earlier ones.
+     */
+    @Parameter
+    private List<File> kameletDirectories;
+
+    /**
+     * Drop the definitions of the Camel YAML DSL schema which are not reachable from its top level
+     * properties, normalize its "$ref"s and write it minified instead of copying it as it is.
+     */
+    @Parameter
+    private boolean treeShakeYamlDslSchema = false;
+
+    /** Run the independent stages concurrently instead of one after another. */
+    @Parameter
+    private boolean parallel = false;
+
+    /**
+     * The number of threads used when {@code parallel} is enabled, both for the stages and for
+     * the entries of the component and model catalogs.
+     */
+    @Parameter
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Keep a manifest of the stage inputs in the outputDirectory and skip the stages whose
+     * inputs have not changed since the last build.
+     */
+    @Parameter
+    private boolean incremental = false;
+
+    /**
+     * The hash algorithm for the content hash in the generated file names, MD5, SHA-256,
+     * MURMUR3-128 or any other algorithm supported by {@link java.security.MessageDigest}.
+     */
+    @Parameter
+    private String hashAlgorithm = ContentHasher.MD5;
+
+    /**
+     * Write a gzip compressed {@code .gz} sibling next to each generated file, and record the
+     * size of both in the index.
+     */
+    @Parameter
+    private boolean precompress = false;
+
+    /**
+     * Additionally write each entry of the component, model and pattern catalogs into its own file,
+     * plus a summary of each of these catalogs which refers to those files.
+     */
+    @Parameter
+    private boolean shardCatalogs = false;
+
+    /**
+     * Omit the {@code propertiesSchema} which is derived from the {@code properties} in the
+     * catalogs, and publish the descriptor of that derivation as {@code propertiesSchemaMapping}
+     * in the index instead.
+     */
+    @Parameter
+    private boolean compactPropertiesSchema = false;
+
+    /**
+     * Inline the "$ref"s of the data format, language, pattern and entity schemas in the catalogs,
+     * only the recursive ones are kept and marked in their "$comment".
+     */
+    @Parameter
+    private boolean dereferenceSchemas = false;
+
+    /**
+     * Write the definitions which are repeated across the YAML DSL sub schemas, and across the
+     * catalog entries, once into a shared definitions file per stage, and refer to them with
+     * external "$ref"s from the schemas.
+     */
+    @Parameter
+    private boolean sharedDefinitions = false;
+
+    /**
+     * Also write each catalog in the binary Smile format next to the JSON, and list the available
+     * encodings of each entry in the index.
+     */
+    @Parameter
+    private boolean writeSmile = false;
+
+    /**
+     * The name of the output profile, which controls the whitespace and the fields of the
+     * generated JSON, {@code pretty}, {@code minified}, {@code ui-slim} or one of the
+     * {@code outputProfiles}.
+     */
+    @Parameter
+    private String outputProfile = OutputProfile.PRETTY;
+
+    /** Additional output profiles, see {@link OutputProfile}. */
+    @Parameter
+    private List<OutputProfile> outputProfiles;
+
+    /**
+     * Write a boot bundle with what the UI needs to render first, i.e. the index, the summaries of
+     * the pattern and entity catalogs, the boundary kamelets and the {@code bootBundleSchemas}, and
+     * refer to it as {@code bootBundle} in the index.
+     */
+    @Parameter
+    private boolean bootBundle = false;
+
+    /**
+     * The schemas to include into the boot bundle, by their name in the index. By default all the
+     * schemas in the index, which the UI loads on startup, but the full Camel YAML DSL schema when
+     * its sub schemas are generated.
+     */
+    @Parameter
+    private List<String> bootBundleSchemas;
+
+    /**
+     * Also concatenate the files listed in the index, along with their precompressed and Smile
+     * variants, into a single {@code catalog-archive-<hash>.bin}, and refer to its table of
+     * contents as {@code archive} in the index, so that the entries can be fetched from the
+     * archive with HTTP range requests.
+     */
+    @Parameter
+    private boolean writeArchive = false;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private HashedFileWriter fileWriter;
+    private OutputProfile profile;
+    private CamelYamlDslSchemaProcessor camelYamlDslSchemaProcessor;
+
+    private interface StageInputs {
+        void addTo(BuildManifest.Fingerprint fingerprint) throws Exception;
+    }
+
+    private record Stage(String name, StageInputs inputs, Consumer<Index> action) {}
 
     public void execute() {
         if (!inputDirectory.exists()) {
-            getLog().error(new IllegalArgumentException(String.format(
+            logError(new IllegalArgumentException(String.format(
                     "inputDirectory '%s' does not exist", inputDirectory.getName())));
             return;
         }
         outputDirectory.mkdirs();
+        try {
+            profile = OutputProfile.resolve(outputProfile, outputProfiles);
+            fileWriter = new HashedFileWriter(jsonMapper, outputDirectory.toPath(), new ContentHasher(hashAlgorithm));
+            fileWriter.setPretty(profile.isPretty());
+            fileWriter.setPrecompress(precompress);
+            fileWriter.setSmile(writeSmile);
+        } catch (Exception e) {
+            logError(e);
+            return;
+        }
         var path = inputDirectory.toPath();
         var index = new Index();
-        var yamlDslSchemaProcessor = processCamelSchema(path, index);
-        processK8sSchema(path, index);
-        processCatalog(yamlDslSchemaProcessor, index);
-        processCRDs(path, index);
-        processKamelets(path, index);
-        processAdditionalSchemas(path, index);
+        var manifest = incremental ? BuildManifest.load(jsonMapper, outputDirectory.toPath()) : null;
+        var stages = createStages(path);
+        if (parallel) {
+            processConcurrently(stages, manifest, index);
+        } else {
+            stages.forEach(stage -> runStage(stage, manifest, index));
+        }
         try {
+            if (writeArchive) {
+                writeArchive(index);
+            }
+            addFileDetails(index);
+            if (bootBundle) {
+                writeBootBundle(index);
+                // the bundle embeds the final index, only its own entry is yet to get the details
+                addFileDetails(index);
+            }
             var indexFile = outputDirectory.toPath().resolve("index.json").toFile();
-            jsonMapper.writerWithDefaultPrettyPrinter().writeValue(indexFile, index);
+            var indexWriter = profile.isPretty() ? jsonMapper.writerWithDefaultPrettyPrinter() : jsonMapper.writer();
+            indexWriter.writeValue(indexFile, index);
+            if (manifest != null && !failed.get()) {
+                manifest.save(jsonMapper, outputDirectory.toPath());
+            } else if (manifest != null) {
+                // don't trust any of the recorded outputs if something went wrong, build everything next time
+                BuildManifest.delete(outputDirectory.toPath());
+            }
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
+        }
+    }
+
+    private List<Stage> createStages(Path inputDir) {
+        var schemaDir = inputDir.resolve(SCHEMA);
+        return List.of(
+                new Stage(
+                        CAMEL_YAML_DSL,
+                        fp -> fp.add(schemaDir.resolve(CAMEL_YAML_DSL + ".json"))
+                                .add(camelVersion)
+                                .add(generateSubSchema)
+                                .add(treeShakeYamlDslSchema)
+                                .add(sharedDefinitions),
+                        stageIndex -> processCamelSchema(inputDir, stageIndex)),
+                new Stage(
+                        K8S_V1_OPENAPI,
+                        fp -> fp.add(schemaDir.resolve(K8S_V1_OPENAPI + ".json"))
+                                .add(kubernetesDefinitions),
+                        stageIndex -> processK8sSchema(inputDir, stageIndex)),
+                new Stage(
+                        CAMEL_CATALOG_AGGREGATE,
+                        fp -> fp.add(schemaDir.resolve(CAMEL_YAML_DSL + ".json"))
+                                .add(camelVersion)
+                                .add(new DefaultCamelCatalog().getCatalogVersion())
+                                .add(shardCatalogs)
+                                .add(compactPropertiesSchema)
+                                .add(dereferenceSchemas)
+                                .add(bootBundle)
+                                .add(sharedDefinitions),
+                        stageIndex -> processCatalog(inputDir, stageIndex)),
+                new Stage(
+                        CRDS,
+                        fp -> {
+                            fp.add(inputDir.resolve(CRDS))
+                                    .add(camelKCRDVersion)
+                                    .add(stripCRDKubernetesKeywords)
+                                    .add(crdVersion)
+                                    .add(crdFiles);
+                            addArchive(fp, crdsArchive);
+                        },
+                        stageIndex -> processCRDs(inputDir, stageIndex)),
+                new Stage(
+                        KAMELETS,
+                        fp -> {
+                            fp.add(inputDir.resolve(KAMELETS)).add(kameletsVersion);
+                            addArchive(fp, kameletsArchive);
+                            for (var dir : getKameletDirectories()) {
+                                fp.add(dir.toString()).add(dir);
+                            }
+                        },
+                        stageIndex -> processKamelets(inputDir, stageIndex)),
+                new Stage(
+                        "additionalSchemas",
+                        fp -> {
+                            fp.add(additionalSchemas);
+                            if (additionalSchemas != null) {
+                                for (var schema : additionalSchemas) {
+                                    fp.add(Paths.get(schema));
+                                }
+                            }
+                        },
+                        stageIndex -> processAdditionalSchemas(inputDir, stageIndex))
+        );
+    }
+
+    /**
+     * Run the stages on a bounded thread pool. The stages are independent of each other, the Camel
+     * YAML DSL schema stage and the catalog stage share the {@link CamelYamlDslSchemaProcessor}
+     * which is created by whichever of them needs it first. Each stage handles and logs its own
+     * errors the same way as in the sequential mode.
+     */
+    private void processConcurrently(List<Stage> stages, BuildManifest manifest, Index index) {
+        var executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            CompletableFuture.allOf(stages.stream()
+                    .map(stage -> CompletableFuture.runAsync(() -> runStage(stage, manifest, index), executor))
+                    .toArray(CompletableFuture[]::new)
+            ).join();
+        } catch (CompletionException e) {
+            logError(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void runStage(Stage stage, BuildManifest manifest, Index index) {
+        if (manifest == null) {
+            stage.action().accept(index);
+            return;
+        }
+        String fingerprint;
+        try {
+            var fp = new BuildManifest.Fingerprint().add(pluginVersion).add(getPluginArchive()).add(hashAlgorithm)
+                    .add(precompress).add(writeSmile)
+                    .add(profile.getName()).add(profile.isPretty()).add(profile.getStrip()).add(profile.getKeep());
+            stage.inputs().addTo(fp);
+            fingerprint = fp.build();
+        } catch (Exception e) {
+            logError(e);
+            stage.action().accept(index);
+            return;
+        }
+        try {
+            if (manifest.run(stage.name(), fingerprint, outputDirectory.toPath(), index, stage.action())) {
+                getLog().info(String.format("Stage '%s' is up to date", stage.name()));
+            }
+        } catch (Exception e) {
+            logError(e);
+        }
+    }
+
+    private void addFileDetails(Index index) throws Exception {
+        if (precompress) {
+            addFileSizes(index);
+        }
+        if (writeSmile) {
+            addEncodings(index);
+        }
+    }
+
+    private void addFileSizes(Index index) throws Exception {
+        for (var entries : List.of(index.getCatalogs(), index.getSchemas())) {
+            for (var entry : entries.entrySet()) {
+                var file = outputDirectory.toPath().resolve(entry.getValue().file());
+                var gzipFile = file.resolveSibling(file.getFileName() + HashedFileWriter.GZIP_EXTENSION);
+                entry.setValue(entry.getValue().withSizes(
+                        Files.size(file),
+                        Files.exists(gzipFile) ? Files.size(gzipFile) : null));
+            }
+        }
+    }
+
+    private void addEncodings(Index index) {
+        for (var entries : List.of(index.getCatalogs(), index.getSchemas())) {
+            for (var entry : entries.entrySet()) {
+                var file = entry.getValue().file();
+                if (!file.endsWith(".json")) {
+                    continue;
+                }
+                var smileFile = outputDirectory.toPath().resolve(HashedFileWriter.getSmileFileName(file));
+                entry.setValue(entry.getValue().withEncodings(
+                        Files.exists(smileFile) ? List.of("json", "smile") : List.of("json")));
+            }
+        }
+    }
+
+    /**
+     * The plugin jar itself, so that a rebuilt SNAPSHOT plugin invalidates the manifest.
+     */
+    private Path getPluginArchive() throws Exception {
+        return Paths.get(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private synchronized CamelYamlDslSchemaProcessor getCamelYamlDslSchemaProcessor(Path schema) throws Exception {
+        if (camelYamlDslSchemaProcessor == null) {
+            var yamlDslSchema = (ObjectNode) jsonMapper.readTree(schema.toFile());
+            camelYamlDslSchemaProcessor = new CamelYamlDslSchemaProcessor(jsonMapper, yamlDslSchema);
         }
+        return camelYamlDslSchemaProcessor;
+    }
+
+    private void logError(Throwable error) {
+        failed.set(true);
+        getLog().error(error);
     }
 
-    private CamelYamlDslSchemaProcessor processCamelSchema(Path inputDir, Index index) {
+    private void processCamelSchema(Path inputDir, Index index) {
         var schema = inputDir.resolve(SCHEMA).resolve(CAMEL_YAML_DSL + ".json");
         if (!schema.toFile().exists()) {
-            getLog().error(new IllegalArgumentException(String.format(
+            logError(new IllegalArgumentException(String.format(
                     "Camel YAML DSL JSON Schema file not found: %s",
                     schema
             )));
-            return null;
+            return;
         }
         try {
-            var outputFileName = String.format("%s-%s.json", CAMEL_YAML_DSL, Util.generateHash(schema));
-            var output = outputDirectory.toPath().resolve(outputFileName);
-            output.getParent().toFile().mkdirs();
-            Files.copy(schema, output, StandardCopyOption.REPLACE_EXISTING);
+            var outputFileName = treeShakeYamlDslSchema
+                    ? writeReachableSchema(schema)
+                    : writeSchemaFile(schema, CAMEL_YAML_DSL, CAMEL_YAML_DSL, "json");
             var indexEntry = new Entry(
                     "camelYamlDsl",
                     "Camel YAML DSL JSON schema",
@@ -144,25 +528,27 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                     outputFileName);
             index.getSchemas().put("camelYamlDsl", indexEntry);
         } catch (Exception e) {
-            getLog().error(e);
-            return null;
+            logError(e);
+            return;
         }
 
         try {
-            var yamlDslSchema = (ObjectNode) jsonMapper.readTree(schema.toFile());
-            var schemaProcessor = new CamelYamlDslSchemaProcessor(jsonMapper, yamlDslSchema);
+            var schemaProcessor = getCamelYamlDslSchemaProcessor(schema);
             if (generateSubSchema) {
-                var schemaMap = schemaProcessor.processSubSchema();
+                var schemaMap = new LinkedHashMap<String, ObjectNode>();
+                schemaProcessor.getSubSchemas().forEach((name, subSchema) -> {
+                    // the sub schemas share the nodes of their definitions, detach them before modifying them
+                    var detached = sharedDefinitions || profile.hasRules(name) ? subSchema.deepCopy() : subSchema;
+                    schemaMap.put(name, profile.apply(name, detached));
+                });
+                if (sharedDefinitions) {
+                    writeSharedDefinitions(CAMEL_YAML_DSL, CAMEL_YAML_DSL, List.copyOf(schemaMap.values()), index);
+                }
                 schemaMap.forEach((name, subSchema) -> {
                     try {
-                        var subSchemaFileName = String.format(
-                                "%s-%s-%s.json",
-                                KaotoCamelCatalogMojo.CAMEL_YAML_DSL,
-                                name,
-                                Util.generateHash(subSchema));
-                        var subSchemaPath = outputDirectory.toPath().resolve(subSchemaFileName);
-                        subSchemaPath.getParent().toFile().mkdirs();
-                        Files.writeString(subSchemaPath, subSchema);
+                        var subSchemaFileName = fileWriter.write(
+                                String.format("%s-%s", KaotoCamelCatalogMojo.CAMEL_YAML_DSL, name),
+                                subSchema);
                         var subSchemaIndexEntry = new Entry(
                                 name,
                                 "Camel YAML DSL JSON schema: " + name,
@@ -170,21 +556,46 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                                 subSchemaFileName);
                         index.getSchemas().put(name, subSchemaIndexEntry);
                     } catch (Exception e) {
-                        getLog().error(e);
+                        logError(e);
                     }
                 });
             }
-            return schemaProcessor;
         } catch (Exception e) {
-            getLog().error(e);
-            return null;
+            logError(e);
         }
     }
 
+    private String writeReachableSchema(Path schema) throws Exception {
+        var reachable = getCamelYamlDslSchemaProcessor(schema).getReachableSchema();
+        var outputFileName = fileWriter.write(CAMEL_YAML_DSL, profile.apply(CAMEL_YAML_DSL, reachable.schema()), false);
+        var removed = reachable.removedDefinitions();
+        getLog().info(String.format(
+                "Tree shaken %s: removed %d of %d definitions, %d of %d bytes",
+                outputFileName,
+                removed.size(),
+                removed.size() + reachable.schema().at("/items/definitions").size(),
+                Files.size(schema) - Files.size(outputDirectory.toPath().resolve(outputFileName)),
+                Files.size(schema)));
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("Unreachable definitions: " + removed);
+        }
+        return outputFileName;
+    }
+
+    /**
+     * Copy the schema file as it is, unless the output profile reformats or strips it.
+     */
+    private String writeSchemaFile(Path input, String kind, String prefix, String extension) throws Exception {
+        if ((profile.isPretty() && !profile.hasRules(kind)) || !"json".equals(extension)) {
+            return fileWriter.copy(input, prefix, extension);
+        }
+        return fileWriter.write(prefix, profile.apply(kind, jsonMapper.readTree(input.toFile())));
+    }
+
     private void processK8sSchema(Path inputDir, Index index) {
         var openapiSpecPath = inputDir.resolve(SCHEMA).resolve(K8S_V1_OPENAPI + ".json");
         if (!openapiSpecPath.toFile().exists()) {
-            getLog().error(new IllegalArgumentException(String.format(
+            logError(new IllegalArgumentException(String.format(
                     "Kubernetes OpenAPI JSON Schema file not found: %s",
                     openapiSpecPath
             )));
@@ -192,15 +603,21 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
         }
 
         try {
-            var openapiSpec = (ObjectNode) jsonMapper.readTree(openapiSpecPath.toFile());
-            var processor = new K8sSchemaProcessor(jsonMapper, openapiSpec);
-            var schemaMap = processor.processK8sDefinitions(kubernetesDefinitions);
+            K8sSchemaProcessor processor;
+            if (streamKubernetesSpec) {
+                processor = K8sSchemaProcessor.stream(jsonMapper, openapiSpecPath, kubernetesDefinitions);
+            } else {
+                var openapiSpec = (ObjectNode) jsonMapper.readTree(openapiSpecPath.toFile());
+                processor = new K8sSchemaProcessor(jsonMapper, openapiSpec);
+            }
+            var schemaMap = processor.getK8sDefinitions(kubernetesDefinitions);
             for (var entry : schemaMap.entrySet()) {
                 var name = entry.getKey();
-                var schema = entry.getValue();
-                var outputFileName = String.format("%s-%s-%s.json", K8S_V1_OPENAPI, name, Util.generateHash(schema));
-                var output = outputDirectory.toPath().resolve(outputFileName);
-                Files.writeString(output, schema);
+                // the definitions share the nodes of the spec, detach them before stripping
+                var schema = profile.hasRules(name)
+                        ? profile.apply(name, entry.getValue().deepCopy())
+                        : entry.getValue();
+                var outputFileName = fileWriter.write(String.format("%s-%s", K8S_V1_OPENAPI, name), schema);
                 var indexEntry = new Entry(
                         name,
                         "Kubernetes OpenAPI JSON schema: " + name,
@@ -209,49 +626,250 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                 index.getSchemas().put(name, indexEntry);
             }
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
         }
     }
 
-    private void processCatalog(CamelYamlDslSchemaProcessor schemaProcessor, Index index) {
-        var catalogProcessor = new CamelCatalogProcessor(jsonMapper, schemaProcessor);
+    private void processCatalog(Path inputDir, Index index) {
         try {
-            var catalogMap = catalogProcessor.processCatalog();
-            catalogMap.forEach((name, catalog) -> {
-                try {
-                    var outputFileName = String.format(
-                            "%s-%s-%s.json", CAMEL_CATALOG_AGGREGATE, name, Util.generateHash(catalog));
-                    var output = outputDirectory.toPath().resolve(outputFileName);
-                    Files.writeString(output, catalog);
-                    var indexEntry = new Entry(
-                            name,
-                            "Aggregated Camel catalog for " + name,
-                            camelVersion,
-                            outputFileName);
-                    index.getCatalogs().put(name, indexEntry);
-                } catch (Exception e) {
-                    getLog().error(e);
+            var schemaProcessor = getCamelYamlDslSchemaProcessor(inputDir.resolve(SCHEMA).resolve(CAMEL_YAML_DSL + ".json"));
+            var catalogProcessor = new CamelCatalogProcessor(jsonMapper, schemaProcessor);
+            if (parallel) {
+                catalogProcessor.setParallelism(parallelism);
+            }
+            catalogProcessor.setDereferenceSchemas(dereferenceSchemas);
+            if (compactPropertiesSchema) {
+                catalogProcessor.setCompactPropertiesSchema(true);
+                var outputFileName = fileWriter.write(
+                        String.format("%s-%s", CAMEL_CATALOG, PROPERTIES_SCHEMA_MAPPING),
+                        catalogProcessor.getPropertiesSchemaMapping());
+                var indexEntry = new Entry(
+                        PROPERTIES_SCHEMA_MAPPING,
+                        "Derivation of the propertiesSchema omitted from the compact catalogs",
+                        camelVersion,
+                        outputFileName);
+                index.getCatalogs().put(PROPERTIES_SCHEMA_MAPPING, indexEntry);
+            }
+            if (!sharedDefinitions) {
+                catalogProcessor.processCatalog((name, catalog) ->
+                        writeCatalog(catalogProcessor, name, profile.apply(name, catalog), index));
+                return;
+            }
+            // the shared definitions are collected from all the catalogs before writing any of them
+            var catalogs = new LinkedHashMap<String, ObjectNode>();
+            catalogProcessor.processCatalog((name, catalog) -> catalogs.put(name, profile.apply(name, catalog).deepCopy()));
+            var schemas = new ArrayList<ObjectNode>();
+            for (var catalog : catalogs.values()) {
+                for (var entry : catalog) {
+                    if (entry.get("propertiesSchema") instanceof ObjectNode propertiesSchema) {
+                        schemas.add(propertiesSchema);
+                    }
                 }
-            });
+            }
+            writeSharedDefinitions(CAMEL_CATALOG, CAMEL_CATALOG_NAME, schemas, index);
+            catalogs.forEach((name, catalog) -> writeCatalog(catalogProcessor, name, catalog, index));
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
+        }
+    }
+
+    private void writeCatalog(CamelCatalogProcessor catalogProcessor, String name, ObjectNode catalog, Index index) {
+        try {
+            var outputFileName = fileWriter.write(String.format("%s-%s", CAMEL_CATALOG_AGGREGATE, name), catalog);
+            var indexEntry = new Entry(
+                    name,
+                    "Aggregated Camel catalog for " + name,
+                    camelVersion,
+                    outputFileName);
+            index.getCatalogs().put(name, indexEntry);
+            if (shardCatalogs && SHARDED_CATALOGS.contains(name)) {
+                processCatalogShards(catalogProcessor, name, catalog, index);
+            } else if (bootBundle && BOOT_BUNDLE_SUMMARIES.contains(name)) {
+                // without the shards, the summary refers to the aggregated catalog for each entry
+                var entryFiles = new LinkedHashMap<String, String>();
+                catalog.fieldNames().forEachRemaining(entryName -> entryFiles.put(entryName, outputFileName));
+                writeCatalogSummary(catalogProcessor, name, catalog, entryFiles, index);
+            }
+        } catch (Exception e) {
+            logError(e);
+        }
+    }
+
+    /**
+     * Write the definitions the schemas have in common into a shared file, and replace them in
+     * the schemas with external "$ref"s to that file.
+     * @param prefix the file name prefix, in kebab case
+     * @param owner the name of what the schemas belong to, in camel case, used for the index entry name
+     * @param schemas the schemas to modify, they must not share any nodes
+     * @param index
+     */
+    private void writeSharedDefinitions(String prefix, String owner, List<ObjectNode> schemas, Index index)
+            throws Exception {
+        var library = SharedDefinitions.collect(jsonMapper, schemas);
+        if (library.isEmpty()) {
+            return;
+        }
+        var name = owner + "SharedDefinitions";
+        var outputFileName = fileWriter.write(
+                String.format("%s-%s", prefix, SHARED_DEFINITIONS), library.toSchema(jsonMapper));
+        int replaced = 0;
+        for (var schema : schemas) {
+            replaced += library.externalize(schema, outputFileName);
+        }
+        getLog().info(String.format("Replaced %d definitions with references to '%s'", replaced, outputFileName));
+        var indexEntry = new Entry(
+                name,
+                "Definitions shared by the schemas of " + owner,
+                camelVersion,
+                outputFileName);
+        index.getSchemas().put(name, indexEntry);
+    }
+
+    private void processCatalogShards(CamelCatalogProcessor catalogProcessor, String name, ObjectNode catalog, Index index)
+            throws Exception {
+        var entryFiles = new LinkedHashMap<String, String>();
+        for (var entry : catalog.properties()) {
+            var entryFileName = fileWriter.write(
+                    String.format("%s-%s-%s", CAMEL_CATALOG, name, entry.getKey()), entry.getValue());
+            entryFiles.put(entry.getKey(), entryFileName);
+            index.getReferencedFiles().add(entryFileName);
         }
+        writeCatalogSummary(catalogProcessor, name, catalog, entryFiles, index);
+    }
+
+    private void writeCatalogSummary(
+            CamelCatalogProcessor catalogProcessor,
+            String name,
+            ObjectNode catalog,
+            Map<String, String> entryFiles,
+            Index index) throws Exception {
+        var summary = catalogProcessor.createSummary(catalog, entryFiles);
+        var summaryName = name + "Summary";
+        var outputFileName = fileWriter.write(String.format("%s-%s-summary", CAMEL_CATALOG_AGGREGATE, name), summary);
+        var indexEntry = new Entry(
+                summaryName,
+                "Summary of the Camel catalog for " + name + ", refers to the file of each entry",
+                camelVersion,
+                outputFileName);
+        index.getCatalogs().put(summaryName, indexEntry);
+    }
+
+    private void writeBootBundle(Index index) throws Exception {
+        var catalogNames = new ArrayList<String>();
+        BOOT_BUNDLE_SUMMARIES.forEach(name -> catalogNames.add(name + "Summary"));
+        catalogNames.add(KAMELET_BOUNDARIES);
+        var schemaNames = bootBundleSchemas;
+        if (schemaNames == null) {
+            schemaNames = index.getSchemas().keySet().stream()
+                    .filter(name -> !generateSubSchema || !CAMEL_YAML_DSL.equals(name))
+                    .sorted()
+                    .toList();
+        }
+        var bundle = new BootBundle(jsonMapper, outputDirectory.toPath(), catalogNames, schemaNames);
+        var outputFileName = bundle.write(fileWriter, index);
+        bundle.getMissing().forEach(name -> getLog().warn(String.format(
+                "'%s' is not in the index, it is not added to the boot bundle", name)));
+        var indexEntry = new Entry(
+                BootBundle.NAME,
+                "The index, the catalog summaries and the schemas needed for the first render",
+                camelVersion,
+                outputFileName);
+        index.getCatalogs().put(BootBundle.NAME, indexEntry);
+    }
+
+    /**
+     * Write the archive with all the files listed in the index and the files they refer to, in the
+     * order of their names, each followed by its precompressed and Smile variants.
+     */
+    private void writeArchive(Index index) throws Exception {
+        var outputDir = outputDirectory.toPath();
+        var hasher = new ContentHasher(hashAlgorithm);
+        var archive = new CatalogArchive(jsonMapper, hasher);
+        var fileNames = new TreeSet<String>(index.getReferencedFiles());
+        for (var entries : List.of(index.getCatalogs(), index.getSchemas())) {
+            entries.values().forEach(entry -> fileNames.add(entry.file()));
+        }
+        for (var fileName : fileNames) {
+            archive.add(fileName, CatalogArchive.JSON, outputDir.resolve(fileName));
+            var gzipFile = outputDir.resolve(fileName + HashedFileWriter.GZIP_EXTENSION);
+            if (Files.exists(gzipFile)) {
+                archive.add(fileName, CatalogArchive.GZIP, gzipFile);
+            }
+            if (fileName.endsWith(".json")) {
+                var smileFile = outputDir.resolve(HashedFileWriter.getSmileFileName(fileName));
+                if (Files.exists(smileFile)) {
+                    archive.add(fileName, CatalogArchive.SMILE, smileFile);
+                }
+            }
+        }
+        // not precompressed, a range of the archive must map to the same range of the file on disk
+        var archiveFileName = archive.write(new HashedFileWriter(jsonMapper, outputDir, hasher), ARCHIVE);
+        var tocFileName = fileWriter.write(ARCHIVE_TOC, archive.createTableOfContents(archiveFileName));
+        var indexEntry = new Entry(
+                ARCHIVE_NAME,
+                "Table of contents of the archive with all the generated files, gives the offset and the length of each of them",
+                camelVersion,
+                tocFileName);
+        index.getCatalogs().put(ARCHIVE_NAME, indexEntry);
+        getLog().info(String.format("Archived %d files into %s", archive.getParts().size(), archiveFileName));
+        fileWriter.deleteStale(ARCHIVE, ".bin", archiveFileName);
+        fileWriter.deleteStale(ARCHIVE_TOC, ".json", tocFileName);
     }
 
     private void processCRDs(Path inputDir, Index index) {
         var crdDir = inputDir.resolve(CRDS);
-        if (!crdDir.toFile().exists()) {
-            getLog().error(new IllegalArgumentException(String.format(
+        if (crdsArchive == null && !crdDir.toFile().exists()) {
+            logError(new IllegalArgumentException(String.format(
                     "Camel K CRD directory is not valid: %s",
                     crdDir)));
             return;
         }
-        try {
-            Files.list(crdDir)
-                    .sorted()
-                    .forEach(f -> processCRDFile(f, index));
+        try (var archive = openArchive(crdsArchive)) {
+            var dirs = new ArrayList<Path>();
+            if (archive != null) {
+                dirs.add(archive.getPath("/"));
+            }
+            dirs.add(crdDir);
+            for (var entry : Util.listMerged(dirs).entrySet()) {
+                var file = entry.getValue().getLast();
+                if (!Files.isDirectory(file) && (crdFiles == null || crdFiles.contains(entry.getKey()))) {
+                    warnIfShadowing(entry.getValue());
+                    processCRDFile(file, index);
+                }
+            }
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
+        }
+    }
+
+    /**
+     * Open the jar as a file system to read its entries in place.
+     * @param archive
+     * @return the file system, or {@code null} if no archive is given
+     * @throws Exception
+     */
+    private FileSystem openArchive(File archive) throws Exception {
+        return archive == null ? null : FileSystems.newFileSystem(archive.toPath());
+    }
+
+    /**
+     * The local files override the entries of the archive with the same name, which silently keeps
+     * a leftover of unpacking an older version of the archive, so it is reported.
+     * @param paths the paths listed under the same name
+     */
+    private void warnIfShadowing(List<Path> paths) {
+        var shadowed = Util.getShadowedArchiveEntry(paths);
+        if (shadowed != null) {
+            getLog().warn(String.format(
+                    "%s overrides %s of %s, delete it if it is a leftover of an older version",
+                    paths.getLast(), shadowed, shadowed.getFileSystem()));
+        }
+    }
+
+    private void addArchive(BuildManifest.Fingerprint fingerprint, File archive) throws Exception {
+        fingerprint.add(String.valueOf(archive));
+        if (archive != null) {
+            fingerprint.add(archive.toPath());
         }
     }
 
@@ -261,7 +879,7 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                 || !"camel".equalsIgnoreCase(dotSplitted[0])
                 || !"apache".equalsIgnoreCase(dotSplitted[1])
                 || !"yaml".equalsIgnoreCase(dotSplitted[3])) {
-            getLog().error(new Exception(
+            logError(new Exception(
                     "Invalid Camel K CRD file name, it is expected to be"
                             + "'camel.apache.org_<CRD name>.yaml', but it was: "
                             + file.getFileName()));
@@ -269,21 +887,26 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
         }
         var underscoreSplitted = dotSplitted[2].split("_");
         if (underscoreSplitted.length < 2 || !"org".equals(underscoreSplitted[0])) {
-            getLog().error(new Exception(
+            logError(new Exception(
                     "Invalid Camel K CRD file name, it is expected to be"
                             + "'camel.apache.org_<CRD name>.yaml', but it was: "
                             + file.getFileName()));
             return;
         }
         try {
-            var crd = yamlMapper.readValue(file.toFile(), CustomResourceDefinition.class);
-            var schema = crd.getSpec().getVersions().get(0).getSchema().getOpenAPIV3Schema();
-            var bytes = jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(schema);
-            var outputFileName = String.format(
-                    "%s-%s-%s.json", CRD_SCHEMA, underscoreSplitted[1], Util.generateHash(bytes));
-            var output = outputDirectory.toPath().resolve(outputFileName);
-            Files.write(output, bytes);
-            var name = crd.getSpec().getNames().getKind();
+            JsonNode crdNode;
+            try (var is = Files.newInputStream(file)) {
+                crdNode = yamlMapper.readTree(is);
+            }
+            var crd = new CRDSchemaProcessor(crdNode);
+            var name = crd.getKind();
+            var schema = crd.getOpenAPIV3Schema(crdVersion);
+            if (stripCRDKubernetesKeywords) {
+                new SchemaRewriter(List.of(K8sSchemaProcessor.removeKubernetesKeywords())).rewrite(schema);
+            }
+            var outputFileName = fileWriter.write(
+                    String.format("%s-%s", CRD_SCHEMA, underscoreSplitted[1]),
+                    profile.apply(name, schema));
             var description = name;
             var indexEntry = new Entry(
                     name,
@@ -292,37 +915,41 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                     outputFileName);
             index.getSchemas().put(name, indexEntry);
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
         }
     }
 
     private void processKamelets(Path inputDir, Index index) {
         var kameletsDir = inputDir.resolve(KAMELETS);
-        if (!kameletsDir.toFile().exists()) {
-            getLog().error(new IllegalArgumentException(String.format(
+        if (kameletsArchive == null && getKameletDirectories().isEmpty() && !kameletsDir.toFile().exists()) {
+            logError(new IllegalArgumentException(String.format(
                     "Kamelets directory is not valid: %s",
                     kameletsDir)));
             return;
         }
-        var root = jsonMapper.createObjectNode();
-        try {
-            Files.list(kameletsDir).sorted().forEach(f -> {
-                        if (f.toFile().isDirectory()) {
-                            processKameletCategory(f, index);
-                        } else {
-                            processKameletFile(f, root);
-                        }
-                    }
-            );
-            JsonFactory jsonFactory = new JsonFactory();
-            var outputStream = new ByteArrayOutputStream();
-            var writer = new OutputStreamWriter(outputStream);
-            var jsonGenerator = jsonFactory.createGenerator(writer).useDefaultPrettyPrinter();
-            jsonMapper.writeTree(jsonGenerator, root);
-            var rootBytes = outputStream.toByteArray();
-            var outputFileName = String.format("%s-%s.json", KAMELETS_AGGREGATE, Util.generateHash(rootBytes));
-            var output = outputDirectory.toPath().resolve(outputFileName);
-            Files.write(output, rootBytes);
+        var ingester = new KameletIngester(jsonMapper, yamlMapper);
+        if (parallel) {
+            ingester.setParallelism(parallelism);
+        }
+        try (var archive = openArchive(kameletsArchive)) {
+            var dirs = new ArrayList<Path>();
+            if (archive != null) {
+                dirs.add(archive.getPath("/" + KAMELETS));
+            }
+            dirs.add(kameletsDir);
+            dirs.addAll(getKameletDirectories());
+            var files = new ArrayList<Path>();
+            for (var entry : Util.listMerged(dirs).entrySet()) {
+                var paths = entry.getValue();
+                if (Files.isDirectory(paths.getLast())) {
+                    processKameletCategory(entry.getKey(), paths, ingester, index);
+                } else {
+                    warnIfShadowing(paths);
+                    files.add(paths.getLast());
+                }
+            }
+            var root = ingestKamelets(ingester, files);
+            var outputFileName = fileWriter.write(KAMELETS_AGGREGATE, profile.apply(KAMELETS, root));
             var indexEntry = new Entry(
                     KAMELETS,
                     "Aggregated Kamelet definitions in JSON",
@@ -330,31 +957,28 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                     outputFileName);
             index.getCatalogs().put(KAMELETS, indexEntry);
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
         }
     }
 
-    private void processKameletCategory(Path dir, Index index) {
-        var categoryName = dir.getFileName();
+    private List<Path> getKameletDirectories() {
+        return kameletDirectories == null ? List.of() : kameletDirectories.stream().map(File::toPath).toList();
+    }
+
+    private void processKameletCategory(String categoryName, List<Path> dirs, KameletIngester ingester, Index index) {
         try {
-            if (Files.list(dir).count() == 0) {
+            var files = Util.listMerged(dirs.stream().filter(Files::isDirectory).toList());
+            if (files.isEmpty()) {
                 return;
             }
-            var category = jsonMapper.createObjectNode();
-            Files.list(dir).sorted().forEach(f -> processKameletFile(f, category));
-
-            JsonFactory jsonFactory = new JsonFactory();
-            var outputStream = new ByteArrayOutputStream();
-            var writer = new OutputStreamWriter(outputStream);
-            var jsonGenerator = jsonFactory.createGenerator(writer).useDefaultPrettyPrinter();
-            jsonMapper.writeTree(jsonGenerator, category);
-            var categoryBytes = outputStream.toByteArray();
-            var outputFileName = String.format("%s-%s-%s.json", KAMELET, categoryName, Util.generateHash(categoryBytes));
-            var output = outputDirectory.toPath().resolve(outputFileName);
-            Files.write(output, categoryBytes);
-            var capitalizedCategoryName = categoryName.toString().substring(0, 1).toUpperCase()
-                    + categoryName.toString().substring(1);
+            files.values().forEach(this::warnIfShadowing);
+            var category = ingestKamelets(ingester, files.values().stream().map(List::getLast).toList());
+
+            var capitalizedCategoryName = categoryName.substring(0, 1).toUpperCase()
+                    + categoryName.substring(1);
             var indexEntryName = String.format("%s%s", KAMELET, capitalizedCategoryName);
+            var outputFileName = fileWriter.write(
+                    String.format("%s-%s", KAMELET, categoryName), profile.apply(indexEntryName, category));
             var indexEntry = new Entry(
                     indexEntryName,
                     String.format("Kamelet definitions of category '%s' in JSON", categoryName),
@@ -362,33 +986,19 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                     outputFileName);
             index.getCatalogs().put(indexEntryName, indexEntry);
         } catch (Exception e) {
-            getLog().error(e);
+            logError(e);
         }
     }
 
-    private void processKameletFile(Path kamelet, ObjectNode targetObject) {
-        var splitted = kamelet.getFileName().toString().split("\\.");
-        if (splitted.length < 2) {
-            getLog().error(new Exception("Invalid file name: " + kamelet.getFileName()));
-            return;
+    /**
+     * Read the Kamelet files, the files which fail are logged and left out.
+     */
+    private ObjectNode ingestKamelets(KameletIngester ingester, List<Path> files) throws Exception {
+        var result = ingester.ingest(files);
+        for (var failure : result.failures()) {
+            logError(new Exception("Failed to read the Kamelet file " + failure.file(), failure.error()));
         }
-        try {
-            String lowerFileName = kamelet.getFileName().toString().toLowerCase();
-            JsonNode kameletNode;
-            if (lowerFileName.endsWith(".yaml") || lowerFileName.endsWith(".yml")) {
-                kameletNode = yamlMapper.readTree(kamelet.toFile());
-            } else if (lowerFileName.endsWith(".json")) {
-                // Try JSON as a fallback
-                kameletNode = jsonMapper.readTree(kamelet.toFile());
-            } else {
-                return;
-            }
-            KameletProcessor.process((ObjectNode) kameletNode);
-            targetObject.putIfAbsent(splitted[0], kameletNode);
-        } catch (Exception e) {
-            getLog().error(e);
-        }
-
+        return result.kamelets();
     }
 
     private void processAdditionalSchemas(Path inputDir, Index index) {
@@ -399,9 +1009,7 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
             try {
                 var input = Paths.get(schema);
                 var fileNameSegments = input.getFileName().toString().split("\\.");
-                var outputFileName = String.format("%s-%s.%s", fileNameSegments[0], Util.generateHash(input), fileNameSegments[1]);
-                var output = outputDirectory.toPath().resolve(outputFileName);
-                Files.copy(input, output, StandardCopyOption.REPLACE_EXISTING);
+                var outputFileName = writeSchemaFile(input, fileNameSegments[0], fileNameSegments[0], fileNameSegments[1]);
                 var indexEntry = new Entry(
                         fileNameSegments[0],
                         "Camel K Pipe ErrorHandler JSON schema",
@@ -409,7 +1017,7 @@ public class KaotoCamelCatalogMojo extends AbstractMojo {
                         outputFileName);
                 index.getSchemas().put(fileNameSegments[0], indexEntry);
             } catch (Exception e) {
-                getLog().error(e);
+                logError(e);
             }
         }
     }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+
+/**
+ * The 128-bit x64 variant of MurmurHash3 with seed 0, as a {@link MessageDigest} so that it can be
+ * used with {@link java.security.DigestOutputStream} and friends. It is a non-cryptographic hash,
+ * much cheaper than MD5 or SHA-256 and good enough to name content-addressed files.
+ * The digest is {@code h1} followed by {@code h2}, both little-endian, which is the same byte order
+ * as other common implementations such as Guava's {@code Hashing.murmur3_128()}.
+ */
+class Murmur3Digest extends MessageDigest {
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int BLOCK_SIZE = 16;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+    private int buffered;
+    private long length;
+    private long h1;
+    private long h2;
+
+    Murmur3Digest() {
+        super(ContentHasher.MURMUR3_128);
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return BLOCK_SIZE;
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        buffer[buffered++] = input;
+        length++;
+        if (buffered == BLOCK_SIZE) {
+            processBlock(buffer, 0);
+            buffered = 0;
+        }
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+        length += len;
+        if (buffered > 0) {
+            var fill = Math.min(BLOCK_SIZE - buffered, len);
+            System.arraycopy(input, offset, buffer, buffered, fill);
+            buffered += fill;
+            offset += fill;
+            len -= fill;
+            if (buffered < BLOCK_SIZE) {
+                return;
+            }
+            processBlock(buffer, 0);
+            buffered = 0;
+        }
+        while (len >= BLOCK_SIZE) {
+            processBlock(input, offset);
+            offset += BLOCK_SIZE;
+            len -= BLOCK_SIZE;
+        }
+        System.arraycopy(input, offset, buffer, 0, len);
+        buffered = len;
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = buffered - 1; i >= 8; i--) {
+            k2 = (k2 << 8) | (buffer[i] & 0xffL);
+        }
+        for (int i = Math.min(buffered, 8) - 1; i >= 0; i--) {
+            k1 = (k1 << 8) | (buffer[i] & 0xffL);
+        }
+        if (buffered > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (buffered > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        var answer = new byte[BLOCK_SIZE];
+        LONG_LE.set(answer, 0, h1);
+        LONG_LE.set(answer, 8, h2);
+        engineReset();
+        return answer;
+    }
+
+    @Override
+    protected void engineReset() {
+        buffered = 0;
+        length = 0;
+        h1 = 0;
+        h2 = 0;
+    }
+
+    private void processBlock(byte[] block, int offset) {
+        long k1 = (long) LONG_LE.get(block, offset);
+        long k2 = (long) LONG_LE.get(block, offset + 8);
+
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A named set of output settings, whether the generated JSON is pretty printed and which of its
+ * fields are stripped.
+ * <p>
+ * The fields are selected with paths in the form of {@code <kind>:<pointer>}, where the kind is the
+ * name of the catalog or schema in the index, e.g. {@code components}, or {@code *} for all of them,
+ * and the pointer is a JSON pointer whose segments may be {@code *} to match any field name or array
+ * index, e.g. <code>components:/&#42;/component/firstVersion</code>. A field matched by a
+ * {@code strip} path is removed unless it is matched by a {@code keep} path. When a {@code keep} path
+ * points below a stripped field, only the kept descendants of that field remain.
+ */
+public class OutputProfile {
+    public static final String PRETTY = "pretty";
+    public static final String MINIFIED = "minified";
+    public static final String UI_SLIM = "ui-slim";
+
+    private static final Map<String, OutputProfile> BUILT_IN = Map.of(
+            PRETTY, new OutputProfile(PRETTY, true, List.of(), List.of()),
+            MINIFIED, new OutputProfile(MINIFIED, false, List.of(), List.of()),
+            UI_SLIM, new OutputProfile(UI_SLIM, false, List.of(
+                    // build metadata of the components the UI doesn't read
+                    "components:/*/component/firstVersion",
+                    "components:/*/component/groupId",
+                    "components:/*/component/artifactId",
+                    "components:/*/component/extendsScheme",
+                    "components:/*/component/lenientProperties",
+                    "components:/*/properties/*/deprecationNote",
+                    "components:/*/componentProperties/*/deprecationNote",
+                    "components:/*/headers/*/deprecationNote"),
+                    List.of()));
+
+    private String name;
+    private boolean pretty = true;
+    private List<String> strip = new ArrayList<>();
+    private List<String> keep = new ArrayList<>();
+    private volatile Rules rules;
+
+    /** The parsed strip and keep paths. */
+    private record Rules(List<PathPattern> strip, List<PathPattern> keep) {
+        List<PathPattern> strip(String kind) {
+            return strip.stream().filter(p -> p.appliesTo(kind)).toList();
+        }
+
+        List<PathPattern> keep(String kind) {
+            return keep.stream().filter(p -> p.appliesTo(kind)).toList();
+        }
+    }
+
+    private record PathPattern(String kind, List<String> segments) {
+        static PathPattern parse(String path) {
+            var separator = path.indexOf(':');
+            if (separator < 1 || !path.startsWith("/", separator + 1)) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid output profile path '%s', it is expected to be '<kind>:/<pointer>'", path));
+            }
+            var segments = Arrays.stream(path.substring(separator + 2).split("/", -1))
+                    .map(s -> s.replace("~1", "/").replace("~0", "~"))
+                    .toList();
+            return new PathPattern(path.substring(0, separator), segments);
+        }
+
+        boolean appliesTo(String kind) {
+            return "*".equals(this.kind) || this.kind.equals(kind);
+        }
+
+        boolean matches(List<String> path) {
+            return path.size() == segments.size() && startsWith(path);
+        }
+
+        /** Whether the path is this pattern or one of its ancestors. */
+        boolean startsWith(List<String> path) {
+            if (path.size() > segments.size()) {
+                return false;
+            }
+            for (int i = 0; i < path.size(); i++) {
+                if (!"*".equals(segments.get(i)) && !segments.get(i).equals(path.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public OutputProfile() {
+    }
+
+    public OutputProfile(String name, boolean pretty, List<String> strip, List<String> keep) {
+        this.name = name;
+        this.pretty = pretty;
+        this.strip = strip;
+        this.keep = keep;
+    }
+
+    /**
+     * Find the profile by its name, either among the custom profiles or the built-in ones,
+     * {@link #PRETTY}, {@link #MINIFIED} and {@link #UI_SLIM}. A custom profile overrides
+     * the built-in profile of the same name.
+     * @param name
+     * @param customProfiles
+     * @return
+     */
+    public static OutputProfile resolve(String name, List<OutputProfile> customProfiles) {
+        if (customProfiles != null) {
+            for (var profile : customProfiles) {
+                if (name.equals(profile.getName())) {
+                    profile.validate();
+                    return profile;
+                }
+            }
+        }
+        var answer = BUILT_IN.get(name);
+        if (answer == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Unknown output profile '%s', it is expected to be one of %s or a configured profile",
+                    name, BUILT_IN.keySet().stream().sorted().toList()));
+        }
+        return answer;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    public List<String> getStrip() {
+        return strip;
+    }
+
+    public List<String> getKeep() {
+        return keep;
+    }
+
+    /**
+     * Whether the profile strips anything from the given kind.
+     * @param kind
+     * @return
+     */
+    public boolean hasRules(String kind) {
+        return getRules().strip().stream().anyMatch(p -> p.appliesTo(kind));
+    }
+
+    /**
+     * Strip the fields of the given kind of output in place. A tree which shares nodes with other
+     * trees is to be copied first, see {@link #hasRules(String)}.
+     * @param kind the name of the catalog or schema
+     * @param tree
+     * @return the given tree
+     */
+    public <T extends JsonNode> T apply(String kind, T tree) {
+        var stripPatterns = getRules().strip(kind);
+        if (!stripPatterns.isEmpty()) {
+            strip(tree, new ArrayList<>(), false, stripPatterns, getRules().keep(kind));
+        }
+        return tree;
+    }
+
+    private void validate() {
+        if (name == null) {
+            throw new IllegalArgumentException("The output profile has no name");
+        }
+        getRules();
+    }
+
+    /**
+     * The paths are parsed once, on first use, as the custom profiles are populated field by field.
+     */
+    private Rules getRules() {
+        var answer = rules;
+        if (answer == null) {
+            answer = new Rules(
+                    strip.stream().map(PathPattern::parse).toList(),
+                    keep.stream().map(PathPattern::parse).toList());
+            rules = answer;
+        }
+        return answer;
+    }
+
+    private static void strip(
+            JsonNode node,
+            List<String> path,
+            boolean stripped,
+            List<PathPattern> stripPatterns,
+            List<PathPattern> keepPatterns) {
+        if (node instanceof ObjectNode object) {
+            var names = new ArrayList<String>();
+            object.fieldNames().forEachRemaining(names::add);
+            for (var fieldName : names) {
+                if (stripChild(object.get(fieldName), path, fieldName, stripped, stripPatterns, keepPatterns)) {
+                    object.remove(fieldName);
+                }
+            }
+        } else if (node instanceof ArrayNode array) {
+            // backwards, so that the removals don't shift the indexes yet to be visited
+            for (int i = array.size() - 1; i >= 0; i--) {
+                if (stripChild(array.get(i), path, String.valueOf(i), stripped, stripPatterns, keepPatterns)) {
+                    array.remove(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the child should be removed from its parent
+     */
+    private static boolean stripChild(
+            JsonNode child,
+            List<String> path,
+            String segment,
+            boolean parentStripped,
+            List<PathPattern> stripPatterns,
+            List<PathPattern> keepPatterns) {
+        path.add(segment);
+        try {
+            if (keepPatterns.stream().anyMatch(p -> p.matches(path))) {
+                if (stripPatterns.stream().anyMatch(p -> p.startsWith(path) && !p.matches(path))) {
+                    strip(child, path, false, stripPatterns, keepPatterns);
+                }
+                return false;
+            }
+            var stripped = parentStripped || stripPatterns.stream().anyMatch(p -> p.matches(path));
+            var keptBelow = keepPatterns.stream().anyMatch(p -> p.startsWith(path));
+            if (stripped && !keptBelow) {
+                return true;
+            }
+            if (stripped || stripPatterns.stream().anyMatch(p -> p.startsWith(path))) {
+                strip(child, path, stripped, stripPatterns, keepPatterns);
+            }
+            // nothing to keep below a stripped field
+            return stripped && child.isEmpty();
+        } finally {
+            path.remove(path.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the {@code propertiesSchema} of a catalog entry from its {@code properties}. The
+ * derivation is driven by the {@code properties-schema-mapping.json} descriptor, which is published
+ * along with the catalog, so that the consumers of a compact catalog which omits the
+ * {@code propertiesSchema} can rebuild it the same way.
+ */
+public class PropertiesSchemaMapping {
+    public static final String DESCRIPTOR = "properties-schema-mapping.json";
+    private static final Pattern TEMPLATE_FIELD = Pattern.compile("\\{([^}]+)}");
+    private final ObjectMapper jsonMapper;
+    private final ObjectNode descriptor;
+
+    public PropertiesSchemaMapping(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        try (var is = PropertiesSchemaMapping.class.getResourceAsStream(DESCRIPTOR)) {
+            this.descriptor = (ObjectNode) jsonMapper.readTree(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the descriptor, which is not supposed to be modified.
+     * @return
+     */
+    public ObjectNode getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Whether the given catalog entry gets its {@code propertiesSchema} derived from its
+     * {@code properties}.
+     * @param catalog the name of the catalog, e.g. {@code components}
+     * @param entryName the name of the entry in the catalog
+     * @return
+     */
+    public boolean isDerived(String catalog, String entryName) {
+        var entries = descriptor.path("catalogs").path(catalog);
+        if (entries.isArray()) {
+            for (var entry : entries) {
+                if (entry.asText().equals(entryName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return "*".equals(entries.asText());
+    }
+
+    /**
+     * Derive the JSON schema from the catalog properties.
+     * @param properties the {@code properties} of the catalog entry
+     * @return
+     */
+    public ObjectNode derive(ObjectNode properties) {
+        var answer = descriptor.withObject("/schema").deepCopy();
+        var answerProperties = answer.withObject("/properties");
+        var requiredRule = descriptor.withObject("/required");
+        for (var propertyEntry : properties.properties()) {
+            var property = (ObjectNode) propertyEntry.getValue();
+            var propertySchema = answerProperties.withObject("/" + propertyEntry.getKey());
+            for (var rule : descriptor.withArray("/rules")) {
+                applyRule(rule, property, propertySchema);
+            }
+            if (requiredRule.get("equals").equals(property.get(requiredRule.get("from").asText()))) {
+                answer.withArray("/required").add(propertyEntry.getKey());
+            }
+        }
+        return answer;
+    }
+
+    private void applyRule(JsonNode rule, ObjectNode property, ObjectNode propertySchema) {
+        for (var condition : rule.path("when")) {
+            if (!matches(condition, property.get(condition.get("field").asText()))) {
+                return;
+            }
+        }
+        JsonNode value;
+        if (rule.has("value")) {
+            value = rule.get("value").deepCopy();
+        } else if (rule.has("from")) {
+            value = property.get(rule.get("from").asText());
+            if (value == null) {
+                return;
+            }
+            value = value.deepCopy();
+        } else {
+            value = jsonMapper.getNodeFactory().textNode(expand(rule.get("template").asText(), property));
+        }
+        if (rule.path("asArray").asBoolean()) {
+            value = jsonMapper.createArrayNode().add(value);
+        }
+        propertySchema.set(rule.get("target").asText(), value);
+    }
+
+    private boolean matches(JsonNode condition, JsonNode value) {
+        if (condition.has("present")) {
+            return condition.get("present").asBoolean() == (value != null);
+        }
+        if (condition.has("equals")) {
+            return condition.get("equals").equals(value);
+        }
+        if (condition.has("notEquals")) {
+            return !condition.get("notEquals").equals(value);
+        }
+        if (condition.has("notStartsWith")) {
+            return value == null || !value.asText().startsWith(condition.get("notStartsWith").asText());
+        }
+        if (condition.has("in")) {
+            for (var candidate : condition.get("in")) {
+                if (candidate.isNull() ? value == null : candidate.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        throw new IllegalArgumentException("Unknown properties schema mapping condition: " + condition);
+    }
+
+    private String expand(String template, ObjectNode property) {
+        return TEMPLATE_FIELD.matcher(template).replaceAll(m -> Matcher.quoteReplacement(property.path(m.group(1)).asText()));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Inlines the "$ref"s of a schema into its "definitions", so that the schema can be rendered
+ * without resolving anything. A "$ref" to a definition which is already being inlined on the same
+ * path is recursive, it is kept as is and marked with "recursive" in its "$comment". The
+ * "definitions" only keep the targets of those recursive "$ref"s, themselves inlined the same way.
+ * A "$ref" to a definition which is not in the schema, e.g. the blocked processor definition, is
+ * left untouched.
+ */
+public class SchemaDereferencer {
+    public static final String RECURSIVE = "recursive";
+    private static final String DEFINITIONS = "definitions";
+    private static final String LOCAL_REF_PREFIX = "#/definitions/";
+    private final ObjectNode definitions;
+    private final List<String> recursiveTargets = new ArrayList<>();
+
+    private SchemaDereferencer(ObjectNode definitions) {
+        this.definitions = definitions;
+    }
+
+    /**
+     * Get a dereferenced copy of the schema, the given schema is not modified.
+     * @param schema
+     * @return
+     */
+    public static ObjectNode dereference(ObjectNode schema) {
+        if (!(schema.get(DEFINITIONS) instanceof ObjectNode definitions)) {
+            return schema.deepCopy();
+        }
+        var dereferencer = new SchemaDereferencer(definitions);
+        var root = schema.deepCopy();
+        root.remove(DEFINITIONS);
+        // a "$ref" on the root is inlined as well, refined by the keywords of the root
+        var answer = (ObjectNode) dereferencer.inline(root, new ArrayDeque<>());
+        var kept = answer.objectNode();
+        // inlining a kept definition may reveal more recursive targets
+        for (int i = 0; i < dereferencer.recursiveTargets.size(); i++) {
+            var name = dereferencer.recursiveTargets.get(i);
+            var stack = new ArrayDeque<String>();
+            stack.push(name);
+            kept.set(name, dereferencer.inline(definitions.get(name), stack));
+        }
+        if (!kept.isEmpty()) {
+            var sorted = answer.objectNode();
+            // keep them in the original order
+            definitions.fieldNames().forEachRemaining(name -> {
+                if (kept.has(name)) {
+                    sorted.set(name, kept.get(name));
+                }
+            });
+            answer.set(DEFINITIONS, sorted);
+        }
+        return answer;
+    }
+
+    private JsonNode inline(JsonNode node, Deque<String> stack) {
+        if (node instanceof ObjectNode object) {
+            var name = getLocalRef(object);
+            if (name != null && definitions.has(name)) {
+                if (stack.contains(name)) {
+                    if (!recursiveTargets.contains(name)) {
+                        recursiveTargets.add(name);
+                    }
+                    var answer = object.deepCopy();
+                    answer.put("$comment", answer.has("$comment")
+                            ? answer.get("$comment").asText() + "," + RECURSIVE
+                            : RECURSIVE);
+                    return answer;
+                }
+                stack.push(name);
+                var answer = (ObjectNode) inline(definitions.get(name), stack);
+                stack.pop();
+                // the keywords next to the "$ref" refine the inlined definition
+                var refinement = answer.objectNode();
+                for (var field : object.properties()) {
+                    if (!"$ref".equals(field.getKey())) {
+                        refinement.set(field.getKey(), inline(field.getValue(), stack));
+                    }
+                }
+                refine(answer, refinement);
+                return answer;
+            }
+            var answer = object.objectNode();
+            for (var field : object.properties()) {
+                answer.set(field.getKey(), inline(field.getValue(), stack));
+            }
+            return answer;
+        } else if (node instanceof ArrayNode array) {
+            var answer = array.arrayNode();
+            array.forEach(child -> answer.add(inline(child, stack)));
+            return answer;
+        }
+        return node.deepCopy();
+    }
+
+    /**
+     * Merge the refinement into the schema. Both apply, so the "properties" are merged one by one
+     * and the "required" are combined, any other keyword of the refinement replaces the one of
+     * the schema.
+     */
+    private static void refine(ObjectNode schema, ObjectNode refinement) {
+        for (var field : refinement.properties()) {
+            var existing = schema.get(field.getKey());
+            if ("properties".equals(field.getKey())
+                    && existing instanceof ObjectNode properties
+                    && field.getValue() instanceof ObjectNode refinedProperties) {
+                for (var property : refinedProperties.properties()) {
+                    if (properties.get(property.getKey()) instanceof ObjectNode propertySchema
+                            && property.getValue() instanceof ObjectNode refinedPropertySchema) {
+                        refine(propertySchema, refinedPropertySchema);
+                    } else {
+                        properties.set(property.getKey(), property.getValue());
+                    }
+                }
+            } else if ("required".equals(field.getKey())
+                    && existing instanceof ArrayNode required
+                    && field.getValue() instanceof ArrayNode refinedRequired) {
+                refinedRequired.forEach(name -> {
+                    if (!contains(required, name)) {
+                        required.add(name);
+                    }
+                });
+            } else {
+                schema.set(field.getKey(), field.getValue());
+            }
+        }
+    }
+
+    private static boolean contains(ArrayNode array, JsonNode value) {
+        for (var element : array) {
+            if (element.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getLocalRef(ObjectNode node) {
+        var ref = node.get("$ref");
+        if (ref == null || !ref.isTextual() || !ref.asText().startsWith(LOCAL_REF_PREFIX)) {
+            return null;
+        }
+        return ref.asText().substring(LOCAL_REF_PREFIX.length());
+    }
+}
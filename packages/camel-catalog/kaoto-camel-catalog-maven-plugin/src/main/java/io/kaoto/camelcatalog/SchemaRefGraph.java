@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The "$ref" dependency graph of a set of schema definitions. The outgoing references of each
+ * definition are collected once and reused, which allows attaching the transitive closure of the
+ * referenced definitions to a schema in a single pass.
+ * The graph assumes that the definitions it looks up are not modified while it's in use.
+ */
+public class SchemaRefGraph {
+    private static final String DEFINITIONS = "definitions";
+    private final Function<String, ObjectNode> definitionLookup;
+    private final Function<ObjectNode, String> refResolver;
+    private final Map<String, List<String>> references = new HashMap<>();
+
+    /**
+     * @param definitionLookup returns the definition for the name
+     * @param refResolver returns the definition name referenced by the node which holds a "$ref"
+     */
+    public SchemaRefGraph(Function<String, ObjectNode> definitionLookup, Function<ObjectNode, String> refResolver) {
+        this.definitionLookup = definitionLookup;
+        this.refResolver = refResolver;
+    }
+
+    /**
+     * Get the names of the definitions directly referenced by the definition, in document order.
+     * @param name
+     * @return
+     */
+    public List<String> getReferences(String name) {
+        var answer = references.get(name);
+        if (answer == null) {
+            answer = collectReferences(definitionLookup.apply(name));
+            references.put(name, answer);
+        }
+        return answer;
+    }
+
+    /**
+     * Resolve the definitions the schema transitively refers to, and which are not in its
+     * "definitions" yet. The names are ordered breadth first from the schema, which is the same
+     * order as repeatedly adding the first missing "$ref" found while walking the schema.
+     * @param schema the schema to resolve the references for
+     * @param excluded the definitions which should not be followed
+     * @return
+     */
+    public SequencedSet<String> resolveClosure(ObjectNode schema, Predicate<String> excluded) {
+        var existing = schema.get(DEFINITIONS);
+        var answer = new LinkedHashSet<String>();
+        var queue = new ArrayDeque<String>();
+        Predicate<String> isMissing = name -> !excluded.test(name)
+                && (existing == null || !existing.has(name))
+                && !answer.contains(name);
+        var rootRefs = new ArrayList<String>();
+        for (var field : schema.properties()) {
+            if ("$ref".equals(field.getKey())) {
+                rootRefs.add(refResolver.apply(schema));
+            } else if (!DEFINITIONS.equals(field.getKey())) {
+                rootRefs.addAll(collectReferences(field.getValue()));
+            }
+        }
+        if (existing != null) {
+            existing.forEach(definition -> rootRefs.addAll(collectReferences(definition)));
+        }
+        for (var name : rootRefs) {
+            if (isMissing.test(name)) {
+                answer.add(name);
+                queue.add(name);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (var name : getReferences(queue.poll())) {
+                if (isMissing.test(name)) {
+                    answer.add(name);
+                    queue.add(name);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Add the definitions the schema transitively refers to into its "definitions".
+     * @param schema
+     * @param excluded the definitions which should not be followed
+     */
+    public void populateDefinitions(ObjectNode schema, Predicate<String> excluded) {
+        var closure = resolveClosure(schema, excluded);
+        if (closure.isEmpty()) {
+            return;
+        }
+        var definitions = schema.withObject("/" + DEFINITIONS);
+        closure.forEach(name -> definitions.set(name, definitionLookup.apply(name)));
+    }
+
+    private List<String> collectReferences(JsonNode node) {
+        var refParents = new ArrayList<ObjectNode>();
+        collectRefParents(node, refParents);
+        return refParents.stream().map(refResolver).toList();
+    }
+
+    private void collectRefParents(JsonNode node, List<ObjectNode> refParents) {
+        if (node.isObject()) {
+            for (var field : node.properties()) {
+                if ("$ref".equals(field.getKey())) {
+                    refParents.add((ObjectNode) node);
+                } else {
+                    collectRefParents(field.getValue(), refParents);
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(child -> collectRefParents(child, refParents));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rewrites a schema in place by applying a set of rules in a single traversal. The rules are applied
+ * to each object node before its children are visited, so that the subtrees a rule removes are not
+ * visited at all. The nodes no rule touches are neither copied nor replaced.
+ */
+public class SchemaRewriter {
+    private final List<Rule> rules;
+
+    /**
+     * A rewrite of a single object node of the schema.
+     */
+    @FunctionalInterface
+    public interface Rule {
+        void apply(ObjectNode node);
+    }
+
+    public SchemaRewriter(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Remove the keywords which match the filter, along with their values.
+     * @param keywordFilter
+     * @return
+     */
+    public static Rule removeKeywords(Predicate<String> keywordFilter) {
+        return node -> {
+            List<String> removed = null;
+            for (var fieldNames = node.fieldNames(); fieldNames.hasNext(); ) {
+                var fieldName = fieldNames.next();
+                if (keywordFilter.test(fieldName)) {
+                    if (removed == null) {
+                        removed = new ArrayList<>();
+                    }
+                    removed.add(fieldName);
+                }
+            }
+            if (removed != null) {
+                node.remove(removed);
+            }
+        };
+    }
+
+    /**
+     * Replace the value of each "$ref".
+     * @param rewrite returns the new reference for the existing one
+     * @return
+     */
+    public static Rule rewriteRefs(UnaryOperator<String> rewrite) {
+        return node -> {
+            var ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                var rewritten = rewrite.apply(ref.asText());
+                if (!rewritten.equals(ref.asText())) {
+                    node.put("$ref", rewritten);
+                }
+            }
+        };
+    }
+
+    /**
+     * Apply the rules to the schema and all its descendants.
+     * @param schema the schema, which is modified
+     * @return the given schema
+     */
+    public <T extends JsonNode> T rewrite(T schema) {
+        visit(schema);
+        return schema;
+    }
+
+    private void visit(JsonNode node) {
+        if (node.isObject()) {
+            var objectNode = (ObjectNode) node;
+            for (var rule : rules) {
+                rule.apply(objectNode);
+            }
+            objectNode.forEach(this::visit);
+        } else if (node.isArray()) {
+            node.forEach(this::visit);
+        }
+    }
+}
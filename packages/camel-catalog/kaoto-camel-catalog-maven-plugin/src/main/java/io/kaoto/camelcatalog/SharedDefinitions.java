@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A library of the schema definitions which are common to a set of schemas. Each of those schemas
+ * carries the transitive closure of the definitions it refers to, so the same definitions are
+ * repeated in many of them. The library holds the most frequent variant of each definition which
+ * occurs more than once, and {@link #externalize(ObjectNode, String)} replaces the local copies
+ * with external "$ref"s into the library file.
+ * <p>
+ * A local definition is only replaced when it's identical to the one in the library, and so are all
+ * the definitions it transitively refers to, so that the references resolve to the same content.
+ */
+public class SharedDefinitions {
+    private static final String DEFINITIONS = "definitions";
+    private static final String LOCAL_REF_PREFIX = "#/definitions/";
+    private final ObjectNode definitions;
+
+    private SharedDefinitions(ObjectNode definitions) {
+        this.definitions = definitions;
+    }
+
+    /**
+     * Collect the common definitions of the schemas. The schemas are not modified.
+     * @param jsonMapper
+     * @param schemas the schemas with their "definitions"
+     * @return
+     */
+    public static SharedDefinitions collect(ObjectMapper jsonMapper, List<ObjectNode> schemas) {
+        // the number of occurrences of each variant, per definition name in the order of appearance
+        var variants = new LinkedHashMap<String, Map<JsonNode, Integer>>();
+        for (var schema : schemas) {
+            var local = schema.get(DEFINITIONS);
+            if (local == null) {
+                continue;
+            }
+            for (var entry : local.properties()) {
+                variants.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>())
+                        .merge(entry.getValue(), 1, Integer::sum);
+            }
+        }
+        var candidates = new LinkedHashMap<String, JsonNode>();
+        variants.forEach((name, counts) -> {
+            JsonNode mostFrequent = null;
+            int max = 1;
+            for (var variant : counts.entrySet()) {
+                // the first one wins on a tie to keep the output stable
+                if (variant.getValue() > max) {
+                    mostFrequent = variant.getKey();
+                    max = variant.getValue();
+                }
+            }
+            if (mostFrequent != null) {
+                candidates.put(name, mostFrequent);
+            }
+        });
+        // the library must be self-contained
+        var names = closedSubset(candidates, candidates.keySet());
+        var answer = jsonMapper.createObjectNode();
+        candidates.forEach((name, definition) -> {
+            if (names.contains(name)) {
+                answer.set(name, definition.deepCopy());
+            }
+        });
+        return new SharedDefinitions(answer);
+    }
+
+    public boolean isEmpty() {
+        return definitions.isEmpty();
+    }
+
+    /**
+     * Get the library as a schema with only "definitions".
+     * @param jsonMapper
+     * @return
+     */
+    public ObjectNode toSchema(ObjectMapper jsonMapper) {
+        var answer = jsonMapper.createObjectNode();
+        answer.put("$schema", "http://json-schema.org/draft-07/schema#");
+        answer.set(DEFINITIONS, definitions.deepCopy());
+        return answer;
+    }
+
+    /**
+     * Replace the local definitions of the schema which are identical to the shared ones with
+     * "$ref"s into the library file. The schema is modified in place, it must not share any nodes
+     * with other schemas.
+     * @param schema
+     * @param fileName the name of the library file the "$ref"s point to
+     * @return the number of the replaced definitions
+     */
+    public int externalize(ObjectNode schema, String fileName) {
+        if (!(schema.get(DEFINITIONS) instanceof ObjectNode local)) {
+            return 0;
+        }
+        var identical = new LinkedHashMap<String, JsonNode>();
+        for (var entry : local.properties()) {
+            var shared = definitions.get(entry.getKey());
+            if (shared != null && shared.equals(entry.getValue())) {
+                identical.put(entry.getKey(), entry.getValue());
+            }
+        }
+        var replaced = closedSubset(identical, identical.keySet());
+        if (replaced.isEmpty()) {
+            return 0;
+        }
+        local.remove(replaced);
+        rewriteRefs(schema, replaced, fileName);
+        if (local.isEmpty()) {
+            schema.remove(DEFINITIONS);
+        }
+        return replaced.size();
+    }
+
+    /**
+     * Get the largest subset of the given definitions which only refer to the definitions in the
+     * subset.
+     */
+    private static Set<String> closedSubset(Map<String, JsonNode> definitions, Set<String> names) {
+        var answer = new HashSet<>(names);
+        var references = new HashMap<String, List<String>>();
+        definitions.forEach((name, definition) -> {
+            var refs = new ArrayList<String>();
+            collectLocalRefs(definition, refs);
+            references.put(name, refs);
+        });
+        boolean changed = true;
+        while (changed) {
+            changed = answer.removeIf(name -> !answer.containsAll(references.get(name)));
+        }
+        return answer;
+    }
+
+    private static void collectLocalRefs(JsonNode node, List<String> refs) {
+        if (node.isObject()) {
+            for (var field : node.properties()) {
+                if ("$ref".equals(field.getKey())) {
+                    var ref = field.getValue().asText();
+                    // a reference to anything else than a definition can't be followed into the library
+                    refs.add(ref.startsWith(LOCAL_REF_PREFIX) ? ref.substring(LOCAL_REF_PREFIX.length()) : ref);
+                } else {
+                    collectLocalRefs(field.getValue(), refs);
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(child -> collectLocalRefs(child, refs));
+        }
+    }
+
+    private static void rewriteRefs(JsonNode node, Set<String> replaced, String fileName) {
+        if (node instanceof ObjectNode object) {
+            var ref = object.get("$ref");
+            if (ref != null && ref.asText().startsWith(LOCAL_REF_PREFIX)
+                    && replaced.contains(ref.asText().substring(LOCAL_REF_PREFIX.length()))) {
+                object.put("$ref", fileName + ref.asText());
+            }
+            for (var field : object.properties()) {
+                if (!"$ref".equals(field.getKey())) {
+                    rewriteRefs(field.getValue(), replaced, fileName);
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(child -> rewriteRefs(child, replaced, fileName));
+        }
+    }
+}
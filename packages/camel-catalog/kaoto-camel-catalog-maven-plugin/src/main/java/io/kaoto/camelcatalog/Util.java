@@ -15,22 +15,77 @@
  */
 package io.kaoto.camelcatalog;
 
+import java.io.IOException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 public class Util {
+    private static final ContentHasher MD5_HASHER = createMd5Hasher();
+
+    private static ContentHasher createMd5Hasher() {
+        try {
+            return new ContentHasher(ContentHasher.MD5);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static String generateHash(byte[] content) throws Exception {
-        if (content == null) return null;
-        var digest = java.security.MessageDigest.getInstance("MD5");
-        var hash = digest.digest(content);
-        return new java.math.BigInteger(1, hash).toString(16);
+        return content == null ? null : MD5_HASHER.hash(content);
     }
 
     public static String generateHash(Path path) throws Exception {
-        return path == null ? null : generateHash(Files.readAllBytes(path));
+        return path == null ? null : MD5_HASHER.hash(path);
     }
 
     public static String generateHash(String content) throws Exception {
-        return content == null ? null : generateHash(content.getBytes());
+        return content == null ? null : MD5_HASHER.hash(content);
+    }
+
+    /**
+     * List the entries of several directories as if they were one, e.g. a directory on disk and a
+     * folder of a jar opened as a zip file system. The directories which don't exist are ignored.
+     * @param dirs
+     * @return the paths of the entries by their file name, in the order of the directories, sorted
+     *         by name
+     * @throws IOException
+     */
+    public static SortedMap<String, List<Path>> listMerged(List<Path> dirs) throws IOException {
+        var answer = new TreeMap<String, List<Path>>();
+        for (var dir : dirs) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (var entries = Files.list(dir)) {
+                entries.forEach(entry -> answer
+                        .computeIfAbsent(entry.getFileName().toString(), k -> new ArrayList<>())
+                        .add(entry));
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Get the archive entry which the last of the paths listed under the same name by
+     * {@link #listMerged(List)} shadows, if it is a file on disk, e.g. a leftover of unpacking an
+     * older version of the archive.
+     * @param paths
+     * @return the shadowed entry, or {@code null} if the last path is not a file on disk or there is
+     *         no archive entry before it
+     */
+    public static Path getShadowedArchiveEntry(List<Path> paths) {
+        var last = paths.getLast();
+        if (last.getFileSystem() != FileSystems.getDefault() || Files.isDirectory(last)) {
+            return null;
+        }
+        return paths.stream()
+                .filter(path -> path.getFileSystem() != FileSystems.getDefault())
+                .findFirst()
+                .orElse(null);
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BootBundleTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    public void testWrite() throws Exception {
+        var fileWriter = new HashedFileWriter(jsonMapper, outputDir);
+        var index = new Index();
+        var patternsFile = fileWriter.write("catalog-patterns-summary", jsonMapper.readTree("""
+                { "log": { "model": { "name": "log" }, "file": "catalog-patterns.json" } }
+                """));
+        index.getCatalogs().put("patternsSummary", new Entry("patternsSummary", "d", "1.0", patternsFile));
+        var routeFile = fileWriter.write("camelYamlDsl-route", jsonMapper.readTree("""
+                { "type": "object", "properties": { "from": { "type": "object" } } }
+                """));
+        index.getSchemas().put("route", new Entry("route", "d", "1.0", routeFile).withSizes(42L, 21L));
+        var metaFile = fileWriter.write("kubernetes-api-v1-openapi-ObjectMeta", jsonMapper.readTree("""
+                { "type": "object" }
+                """));
+        index.getSchemas().put("ObjectMeta", new Entry("ObjectMeta", "d", "1.0", metaFile));
+        var staleBundle = Files.writeString(outputDir.resolve("boot-bundle-stale.json"), "{}");
+        var staleGzip = Files.writeString(outputDir.resolve("boot-bundle-stale.json.gz"), "");
+        var otherFile = Files.writeString(outputDir.resolve("catalog-archive-toc-other.json"), "{}");
+
+        var bootBundle = new BootBundle(jsonMapper, outputDir,
+                List.of("patternsSummary", "kameletBoundaries"), List.of("route", "ObjectMeta", "Pipe"));
+        var bundleFileName = bootBundle.write(fileWriter, index);
+
+        assertTrue(bundleFileName.startsWith(BootBundle.PREFIX + "-"));
+        var bundle = jsonMapper.readTree(outputDir.resolve(bundleFileName).toFile());
+        // the index is embedded as it is, along with the details of its entries
+        assertEquals(routeFile, bundle.at("/index/schemas/route/file").asText());
+        assertEquals(21, bundle.at("/index/schemas/route/gzipSize").asLong());
+        assertEquals(jsonMapper.readTree(outputDir.resolve(patternsFile).toFile()), bundle.at("/catalogs/patternsSummary"));
+        assertEquals(1, bundle.get("catalogs").size());
+        assertEquals(jsonMapper.readTree(outputDir.resolve(routeFile).toFile()), bundle.at("/schemas/route"));
+        assertEquals("object", bundle.at("/schemas/ObjectMeta/type").asText());
+        assertFalse(bundle.get("schemas").has("Pipe"));
+        assertEquals(List.of("kameletBoundaries", "Pipe"), bootBundle.getMissing());
+
+        // the previous bundles are deleted, along with their siblings
+        assertFalse(Files.exists(staleBundle));
+        assertFalse(Files.exists(staleGzip));
+        assertTrue(Files.exists(otherFile));
+        assertTrue(Files.exists(outputDir.resolve(bundleFileName)));
+
+        // writing it again doesn't report the missing entries twice
+        assertEquals(bundleFileName, bootBundle.write(fileWriter, index));
+        assertEquals(List.of("kameletBoundaries", "Pipe"), bootBundle.getMissing());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildManifestTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    public void testFingerprint() throws Exception {
+        var input = outputDir.resolve("input.json");
+        Files.writeString(input, "{}");
+        var fp1 = new BuildManifest.Fingerprint().add(input).add("4.3.0").add(List.of("a", "b")).build();
+        var fp2 = new BuildManifest.Fingerprint().add(input).add("4.3.0").add(List.of("a", "b")).build();
+        assertEquals(fp1, fp2);
+        var fp3 = new BuildManifest.Fingerprint().add(input).add("4.3.0").add(List.of("ab")).build();
+        assertNotEquals(fp1, fp3);
+        Files.writeString(input, "{ }");
+        var fp4 = new BuildManifest.Fingerprint().add(input).add("4.3.0").add(List.of("a", "b")).build();
+        assertNotEquals(fp1, fp4);
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        Files.writeString(outputDir.resolve("schema-1.json"), "{}");
+        var stageIndex = new Index();
+        stageIndex.getSchemas().put("schema", new Entry("schema", "Schema", "1", "schema-1.json"));
+        var manifest = new BuildManifest();
+        manifest.record("stage", "fp", outputDir, stageIndex);
+        var legacyManifest = Files.writeString(outputDir.resolve(".kaoto-camel-catalog-manifest.json"), "{}");
+        manifest.save(jsonMapper, outputDir);
+        // not published along with the generated .json files
+        assertFalse(BuildManifest.FILE_NAME.endsWith(".json"));
+        assertTrue(Files.exists(outputDir.resolve(BuildManifest.FILE_NAME)));
+        assertFalse(Files.exists(legacyManifest));
+
+        var loaded = BuildManifest.load(jsonMapper, outputDir);
+        var index = new Index();
+        assertFalse(loaded.restore("stage", "other", outputDir, index));
+        assertTrue(index.getSchemas().isEmpty());
+        assertTrue(loaded.restore("stage", "fp", outputDir, index));
+        assertEquals("schema-1.json", index.getSchemas().get("schema").file());
+
+        var sized = new Index();
+        sized.getSchemas().put("schema", new Entry("schema", "Schema", "1", "schema-1.json").withSizes(2L, 22L));
+        loaded.record("sized", "fp", outputDir, sized);
+        loaded.save(jsonMapper, outputDir);
+        assertEquals(22L, BuildManifest.load(jsonMapper, outputDir).getStages().get("sized").schemas().get("schema").gzipSize());
+
+        Files.delete(outputDir.resolve("schema-1.json"));
+        assertFalse(loaded.restore("stage", "fp", outputDir, new Index()));
+    }
+
+    @Test
+    public void testRecordRemovesStaleOutput() throws Exception {
+        Files.writeString(outputDir.resolve("schema-1.json"), "{}");
+        Files.writeString(outputDir.resolve("schema-2.json"), "{ }");
+        var manifest = new BuildManifest();
+        var first = new Index();
+        first.getSchemas().put("schema", new Entry("schema", "Schema", "1", "schema-1.json"));
+        manifest.record("stage", "fp1", outputDir, first);
+        var second = new Index();
+        second.getSchemas().put("schema", new Entry("schema", "Schema", "1", "schema-2.json"));
+        manifest.record("stage", "fp2", outputDir, second);
+        assertFalse(Files.exists(outputDir.resolve("schema-1.json")));
+        assertTrue(Files.exists(outputDir.resolve("schema-2.json")));
+    }
+
+    @Test
+    public void testReferencedFiles() throws Exception {
+        Files.writeString(outputDir.resolve("summary.json"), "{}");
+        Files.writeString(outputDir.resolve("shard-1.json"), "{}");
+        Files.writeString(outputDir.resolve("shard-2.json"), "{ }");
+        var manifest = new BuildManifest();
+        var first = new Index();
+        first.getCatalogs().put("summary", new Entry("summary", "Summary", "1", "summary.json"));
+        first.getReferencedFiles().add("shard-1.json");
+        manifest.record("stage", "fp1", outputDir, first);
+        manifest.save(jsonMapper, outputDir);
+
+        var loaded = BuildManifest.load(jsonMapper, outputDir);
+        var restored = new Index();
+        assertTrue(loaded.restore("stage", "fp1", outputDir, restored));
+        assertEquals(Set.of("shard-1.json"), restored.getReferencedFiles());
+
+        var second = new Index();
+        second.getCatalogs().put("summary", new Entry("summary", "Summary", "1", "summary.json"));
+        second.getReferencedFiles().add("shard-2.json");
+        loaded.record("stage", "fp2", outputDir, second);
+        assertFalse(Files.exists(outputDir.resolve("shard-1.json")));
+        assertTrue(Files.exists(outputDir.resolve("shard-2.json")));
+        assertTrue(Files.exists(outputDir.resolve("summary.json")));
+
+        Files.delete(outputDir.resolve("shard-2.json"));
+        assertFalse(loaded.restore("stage", "fp2", outputDir, new Index()));
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        var manifest = new BuildManifest();
+        var runs = new ArrayList<String>();
+        Consumer<Index> action = stageIndex -> {
+            runs.add("stage");
+            assertDoesNotThrow(() -> Files.writeString(outputDir.resolve("summary.json"), "{}"));
+            assertDoesNotThrow(() -> Files.writeString(outputDir.resolve("shard-1.json"), "{}"));
+            stageIndex.getCatalogs().put("summary", new Entry("summary", "Summary", "1", "summary.json"));
+            stageIndex.getReferencedFiles().add("shard-1.json");
+        };
+
+        // the files referenced by a stage which is built reach the index, e.g. for the archive
+        var built = new Index();
+        assertFalse(manifest.run("stage", "fp", outputDir, built, action));
+        assertEquals("summary.json", built.getCatalogs().get("summary").file());
+        assertEquals(Set.of("shard-1.json"), built.getReferencedFiles());
+        assertEquals(Set.of("shard-1.json"), manifest.getStages().get("stage").referencedFiles());
+
+        // the same as when the stage is restored
+        var restored = new Index();
+        assertTrue(manifest.run("stage", "fp", outputDir, restored, action));
+        assertEquals(List.of("stage"), runs);
+        assertEquals(Set.of("shard-1.json"), restored.getReferencedFiles());
+    }
+}
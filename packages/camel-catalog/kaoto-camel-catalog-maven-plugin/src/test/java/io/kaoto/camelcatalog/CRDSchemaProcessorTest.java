@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CRDSchemaProcessorTest {
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final CRDSchemaProcessor processor;
+
+    public CRDSchemaProcessorTest() throws Exception {
+        processor = new CRDSchemaProcessor(yamlMapper.readTree("""
+                apiVersion: apiextensions.k8s.io/v1
+                kind: CustomResourceDefinition
+                spec:
+                  names:
+                    kind: Kamelet
+                  versions:
+                  - name: v1alpha1
+                    served: false
+                    storage: false
+                    schema:
+                      openAPIV3Schema:
+                        description: alpha
+                  - name: v1beta1
+                    served: true
+                    storage: false
+                    schema:
+                      openAPIV3Schema:
+                        description: beta
+                  - name: v1
+                    served: true
+                    storage: true
+                    schema:
+                      openAPIV3Schema:
+                        description: stable
+                        x-kubernetes-preserve-unknown-fields: true
+                """));
+    }
+
+    @Test
+    public void testGetOpenAPIV3Schema() {
+        assertEquals("Kamelet", processor.getKind());
+        assertEquals("alpha", processor.getOpenAPIV3Schema(null).get("description").asText());
+        assertEquals("beta", processor.getOpenAPIV3Schema(CRDSchemaProcessor.SERVED).get("description").asText());
+        var stable = processor.getOpenAPIV3Schema(CRDSchemaProcessor.STORAGE);
+        assertEquals("stable", stable.get("description").asText());
+        assertTrue(stable.get("x-kubernetes-preserve-unknown-fields").asBoolean());
+        assertEquals("beta", processor.getOpenAPIV3Schema("v1beta1").get("description").asText());
+        assertThrows(IllegalArgumentException.class, () -> processor.getOpenAPIV3Schema("v2"));
+    }
+}
@@ -21,8 +21,10 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.camel.dsl.yaml.CamelYamlRoutesBuilderLoader;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,6 +70,27 @@ public class CamelCatalogProcessorTest {
         assertEquals(processor.getLoadBalancerCatalog(), catalogMap.get("loadbalancers"));
     }
 
+    @Test
+    public void testCreateSummary() throws Exception {
+        var componentFiles = new HashMap<String, String>();
+        componentCatalog.fieldNames().forEachRemaining(name -> componentFiles.put(name, name + ".json"));
+        var componentSummary = processor.createSummary(componentCatalog, componentFiles);
+        assertEquals(componentCatalog.size(), componentSummary.size());
+        var direct = componentSummary.withObject("/direct");
+        assertEquals("direct.json", direct.get("file").asText());
+        assertEquals("Direct", direct.withObject("/component").get("title").asText());
+        assertEquals("core,messaging", direct.withObject("/component").get("label").asText());
+        assertFalse(direct.has("properties"));
+        assertFalse(direct.has("propertiesSchema"));
+
+        var modelSummary = processor.createSummary(processorCatalog, Map.of("log", "log.json"));
+        var log = modelSummary.withObject("/log");
+        assertEquals("log", log.withObject("/model").get("name").asText());
+        assertEquals(List.of("name", "title", "description", "label"), List.copyOf(
+                log.withObject("/model").properties().stream().map(Map.Entry::getKey).toList()));
+        assertTrue(modelSummary.withObject("/choice").get("file").isNull());
+    }
+
     @Test
     public void testGetComponentCatalog() throws Exception {
         assertTrue(componentCatalog.size() > 300);
@@ -105,6 +128,52 @@ public class CamelCatalogProcessorTest {
         assertEquals("Etcd3Constants.ETCD_DEFAULT_ENDPOINTS", etcdEProperty.withArray("/default").get(0).asText());
     }
 
+    @Test
+    public void testParallelCatalogsAreIdentical() throws Exception {
+        var parallelProcessor = new CamelCatalogProcessor(jsonMapper, schemaProcessor);
+        parallelProcessor.setParallelism(4);
+        assertEquals(processor.getComponentCatalog(), parallelProcessor.getComponentCatalog());
+        assertEquals(processor.getModelCatalog(), parallelProcessor.getModelCatalog());
+    }
+
+    @Test
+    public void testCompactPropertiesSchema() throws Exception {
+        var compactProcessor = new CamelCatalogProcessor(jsonMapper, schemaProcessor);
+        compactProcessor.setCompactPropertiesSchema(true);
+        var compactComponents = (ObjectNode) jsonMapper.readTree(compactProcessor.getComponentCatalog());
+        var compactModels = (ObjectNode) jsonMapper.readTree(compactProcessor.getModelCatalog());
+        assertFalse(compactComponents.withObject("/timer").has("propertiesSchema"));
+        assertFalse(compactModels.withObject("/from").has("propertiesSchema"));
+
+        // the omitted propertiesSchema is rebuilt from the published descriptor
+        var mapping = new PropertiesSchemaMapping(jsonMapper);
+        assertEquals(processor.getPropertiesSchemaMapping(), mapping.getDescriptor());
+        for (var entry : compactComponents.properties()) {
+            var rebuilt = mapping.derive(entry.getValue().withObject("/properties"));
+            assertEquals(componentCatalog.get(entry.getKey()).get("propertiesSchema"), rebuilt, entry.getKey());
+        }
+        assertEquals(modelCatalog.at("/from/propertiesSchema"), mapping.derive(compactModels.withObject("/from/properties")));
+    }
+
+    @Test
+    public void testDereferenceSchemas() throws Exception {
+        var dereferencingProcessor = new CamelCatalogProcessor(jsonMapper, schemaProcessor);
+        dereferencingProcessor.setDereferenceSchemas(true);
+        var catalogs = new HashMap<String, ObjectNode>();
+        dereferencingProcessor.processCatalog(catalogs::put);
+        for (var name : List.of("dataformats", "languages", "patterns", "entities")) {
+            for (var entry : catalogs.get(name).properties()) {
+                var propertiesSchema = entry.getValue().withObject("/propertiesSchema");
+                assertFalse(propertiesSchema.has("definitions"), entry.getKey());
+                for (var ref : propertiesSchema.findValues("$ref")) {
+                    assertEquals("#/definitions/org.apache.camel.model.ProcessorDefinition", ref.asText(), entry.getKey());
+                }
+            }
+        }
+        assertEquals(processorCatalog.at("/log/propertiesSchema/properties/message"),
+                catalogs.get("patterns").at("/log/propertiesSchema/properties/message"));
+    }
+
     @Test
     public void testComponentEnumParameter() throws Exception {
         checkEnumParameters(componentCatalog);
@@ -267,6 +336,23 @@ public class CamelCatalogProcessorTest {
         assertEquals("Properties", templatedRouteBeanProperties.get("title").asText());
     }
 
+    @Test
+    public void testEntityOptionAliases() throws Exception {
+        var routeProperties = entityCatalog.withObject("/route/properties");
+        assertTrue(routeProperties.has("routePolicy"));
+        assertTrue(routeProperties.has("streamCaching"));
+        assertFalse(routeProperties.has("routePolicyRef"));
+        assertEquals("Route Policy", entityCatalog.withObject("/route/propertiesSchema/properties/routePolicy").get("title").asText());
+        assertTrue(entityCatalog.withObject("/routeTemplate/properties").has("beans"));
+        assertTrue(entityCatalog.withObject("/templatedRoute/properties").has("beans"));
+        // the model catalog keeps the original names
+        var modelRouteProperties = modelCatalog.withObject("/route/properties");
+        assertTrue(modelRouteProperties.has("routePolicyRef"));
+        assertTrue(modelRouteProperties.has("streamCache"));
+        var modelCatalogAfter = (ObjectNode) jsonMapper.readTree(processor.getModelCatalog());
+        assertEquals(modelCatalog, modelCatalogAfter);
+    }
+
     @Test
     public void testEntityEnumParameter() throws Exception {
         checkEnumParameters(entityCatalog);
@@ -21,6 +21,7 @@ import org.apache.camel.dsl.yaml.CamelYamlRoutesBuilderLoader;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +52,26 @@ public class CamelYamlDslSchemaProcessorTest {
         assertEquals("object", beanPropertySchema.get("type").asText());
     }
 
+    @Test
+    public void testGetReachableSchema() throws Exception {
+        var original = yamlDslSchema.deepCopy();
+        var reachable = processor.getReachableSchema();
+        var definitions = reachable.schema().withObject("/items").withObject("/definitions");
+        assertFalse(reachable.removedDefinitions().isEmpty());
+        assertTrue(reachable.removedDefinitions().contains("org.apache.camel.model.GlobalOptionsDefinition"));
+        assertEquals(
+                yamlDslSchema.at("/items/definitions").size(),
+                definitions.size() + reachable.removedDefinitions().size());
+        for (var ref : reachable.schema().findValues("$ref")) {
+            assertTrue(ref.asText().startsWith("#/items/definitions/"), ref.asText());
+            assertTrue(definitions.has(ref.asText().substring("#/items/definitions/".length())), ref.asText());
+        }
+        assertEquals(yamlDslSchema.at("/items/properties"), reachable.schema().at("/items/properties"));
+        assertEquals(List.of("maxProperties", "additionalProperties", "definitions", "properties"),
+                reachable.schema().withObject("/items").properties().stream().map(Map.Entry::getKey).toList());
+        assertEquals(original, yamlDslSchema);
+    }
+
     @Test
     public void testGetDataFormats() throws Exception {
         var dataFormatMap = processor.getDataFormats();
@@ -179,4 +200,16 @@ public class CamelYamlDslSchemaProcessorTest {
         assertEquals("string", customLbRefProp.get("type").asText());
         assertEquals("Ref", customLbRefProp.get("title").asText());
     }
+
+    @Test
+    public void testGettersDoNotShareModifications() throws Exception {
+        var pristine = yamlDslSchema.deepCopy();
+        assertEquals(processor.getProcessors(), processor.getProcessors());
+        assertEquals(processor.getEntities(), processor.getEntities());
+        assertEquals(processor.getDataFormats(), processor.getDataFormats());
+        assertEquals(processor.getLanguages(), processor.getLanguages());
+        assertEquals(processor.getLoadBalancers(), processor.getLoadBalancers());
+        assertEquals(processor.processSubSchema(), processor.processSubSchema());
+        assertEquals(pristine, yamlDslSchema);
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogArchiveTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    public void testWrite() throws Exception {
+        var hasher = new ContentHasher(ContentHasher.MD5);
+        var first = Files.writeString(outputDir.resolve("first.json"), "{ \"a\": 1 }");
+        var second = Files.write(outputDir.resolve("first.json.gz"), new byte[] { 0x1f, (byte) 0x8b, 0, 1 });
+        var third = Files.writeString(outputDir.resolve("third.json"), "[ \"Grüße\" ]");
+        var archive = new CatalogArchive(jsonMapper, hasher);
+        archive.add("first.json", CatalogArchive.JSON, first);
+        archive.add("first.json", CatalogArchive.GZIP, second);
+        archive.add("third.json", CatalogArchive.JSON, third);
+        var fileWriter = new HashedFileWriter(jsonMapper, outputDir, hasher);
+        var archiveFileName = archive.write(fileWriter, "catalog-archive");
+
+        var content = Files.readAllBytes(outputDir.resolve(archiveFileName));
+        assertEquals("catalog-archive-" + hasher.hash(content) + ".bin", archiveFileName);
+        var parts = archive.getParts();
+        assertEquals(3, parts.size());
+        long offset = 0;
+        for (var i = 0; i < parts.size(); i++) {
+            var part = parts.get(i);
+            var file = new Path[] { first, second, third }[i];
+            assertEquals(offset, part.offset());
+            var bytes = Arrays.copyOfRange(content, (int) part.offset(), (int) (part.offset() + part.length()));
+            assertArrayEquals(Files.readAllBytes(file), bytes);
+            assertEquals(hasher.hash(file), part.hash());
+            offset += part.length();
+        }
+        assertEquals(content.length, offset);
+        assertEquals(CatalogArchive.GZIP, parts.get(1).encoding());
+        assertEquals("first.json", parts.get(1).name());
+
+        var toc = archive.createTableOfContents(archiveFileName);
+        assertEquals(archiveFileName, toc.get("archive").asText());
+        assertEquals(content.length, toc.get("size").asLong());
+        assertEquals(ContentHasher.MD5, toc.get("hashAlgorithm").asText());
+        assertEquals(parts.get(2).offset(), toc.at("/entries/2/offset").asLong());
+        assertEquals("third.json", toc.at("/entries/2/name").asText());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import org.apache.camel.catalog.DefaultCamelCatalog;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogModelIndexTest {
+    private final DefaultCamelCatalog api = new DefaultCamelCatalog();
+    private final CatalogModelIndex index = new CatalogModelIndex(api);
+
+    @Test
+    public void testComponents() {
+        assertEquals(api.findComponentNames().size(), index.getComponents().size());
+        var timer = index.getComponent("timer");
+        assertEquals("timer", timer.getScheme());
+        assertSame(timer, index.getComponent("timer"));
+    }
+
+    @Test
+    public void testModels() {
+        assertEquals(api.findModelNames().size(), index.getModels().size());
+        var toD = index.getModel("toD");
+        assertSame(toD, index.getModelByJavaType("org.apache.camel.model.ToDynamicDefinition"));
+        assertSame(toD, index.getModel("toD"));
+        assertNull(index.getModel("non-existing"));
+        assertThrows(UnsupportedOperationException.class, () -> index.getModels().remove("toD"));
+    }
+}
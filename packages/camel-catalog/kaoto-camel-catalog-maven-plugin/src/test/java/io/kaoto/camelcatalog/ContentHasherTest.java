@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentHasherTest {
+    private static final String QUICK_BROWN_FOX = "The quick brown fox jumps over the lazy dog";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMurmur3() throws Exception {
+        var hasher = new ContentHasher(ContentHasher.MURMUR3_128);
+        assertEquals("00000000000000000000000000000000", hasher.hash(""));
+        assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", hasher.hash(QUICK_BROWN_FOX));
+    }
+
+    @Test
+    public void testMurmur3Incremental() throws Exception {
+        var hasher = new ContentHasher(ContentHasher.MURMUR3_128);
+        var content = new byte[1000];
+        new Random(42).nextBytes(content);
+        for (var length : new int[] { 1, 7, 8, 9, 15, 16, 17, 31, 33, 1000 }) {
+            var expected = hasher.hash(Arrays.copyOf(content, length));
+            var digest = hasher.newDigest();
+            for (int i = 0; i < length; ) {
+                var chunk = Math.min(i % 5 + 1, length - i);
+                if (chunk == 1) {
+                    digest.update(content[i]);
+                } else {
+                    digest.update(content, i, chunk);
+                }
+                i += chunk;
+            }
+            assertEquals(expected, hasher.format(digest.digest()), "length " + length);
+        }
+    }
+
+    @Test
+    public void testFixedWidth() throws Exception {
+        assertEquals(32, new ContentHasher(ContentHasher.MD5).hash(QUICK_BROWN_FOX).length());
+        assertEquals("9e107d9d372bb6826bd81d3542a419d6", new ContentHasher(ContentHasher.MD5).hash(QUICK_BROWN_FOX));
+        assertEquals(64, new ContentHasher("SHA-256").hash(QUICK_BROWN_FOX).length());
+        assertEquals("00ff", new ContentHasher(ContentHasher.MD5).format(new byte[] { 0, (byte) 0xff }));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        for (var algorithm : new String[] { ContentHasher.MD5, "SHA-256", ContentHasher.MURMUR3_128 }) {
+            var hasher = new ContentHasher(algorithm);
+            var file = tempDir.resolve(algorithm + ".txt");
+            var digest = hasher.newDigest();
+            try (var out = new DigestOutputStream(Files.newOutputStream(file), digest)) {
+                out.write(QUICK_BROWN_FOX.getBytes(StandardCharsets.UTF_8));
+            }
+            var expected = hasher.hash(QUICK_BROWN_FOX);
+            assertEquals(expected, hasher.format(digest.digest()), algorithm);
+            assertEquals(expected, hasher.hash(file), algorithm);
+        }
+    }
+
+    @Test
+    public void testUnknownAlgorithm() {
+        assertThrows(Exception.class, () -> new ContentHasher("NO-SUCH-HASH"));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedFileWriterTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    public void testWrite() throws Exception {
+        var tree = jsonMapper.readTree("""
+                { "name": "Grüße", "list": [ 1, 2.5, true, null ] }
+                """);
+        var writer = new HashedFileWriter(jsonMapper, outputDir);
+        var fileName = writer.write("catalog-test", tree);
+
+        var output = outputDir.resolve(fileName);
+        var content = Files.readString(output);
+        assertEquals(jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(tree), content);
+        assertEquals("catalog-test-" + Util.generateHash(content) + ".json", fileName);
+        try (var files = Files.list(outputDir)) {
+            assertEquals(1, files.count());
+        }
+
+        // the same content lands in the same file
+        assertEquals(fileName, writer.write("catalog-test", tree));
+
+        // the files are published, so they get the same permissions as any other new file
+        if (Files.getFileAttributeView(output, PosixFileAttributeView.class) != null) {
+            var plainFile = Files.writeString(outputDir.resolve("plain.txt"), "");
+            try {
+                assertEquals(Files.getPosixFilePermissions(plainFile), Files.getPosixFilePermissions(output));
+            } finally {
+                Files.delete(plainFile);
+            }
+        }
+    }
+
+    @Test
+    public void testMinified() throws Exception {
+        var tree = jsonMapper.readTree("""
+                { "name": "minified", "list": [ 1, 2 ] }
+                """);
+        var writer = new HashedFileWriter(jsonMapper, outputDir);
+        writer.setPretty(false);
+        var fileName = writer.write("catalog-test", tree);
+        assertEquals("{\"name\":\"minified\",\"list\":[1,2]}", Files.readString(outputDir.resolve(fileName)));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        var source = Files.writeString(outputDir.resolve("source.json"), "{ \"a\": 1 }");
+        var writer = new HashedFileWriter(jsonMapper, outputDir, new ContentHasher(ContentHasher.MURMUR3_128));
+        var fileName = writer.copy(source, "copied", "json");
+        assertEquals("copied-" + new ContentHasher(ContentHasher.MURMUR3_128).hash(source) + ".json", fileName);
+        assertEquals(Files.readString(source), Files.readString(outputDir.resolve(fileName)));
+    }
+
+    @Test
+    public void testPrecompress() throws Exception {
+        var tree = jsonMapper.readTree("""
+                { "name": "compressed", "list": [ "a", "a", "a", "a", "a", "a", "a", "a" ] }
+                """);
+        var writer = new HashedFileWriter(jsonMapper, outputDir);
+        writer.setPrecompress(true);
+        var fileName = writer.write("catalog-test", tree);
+        var gzipFile = outputDir.resolve(fileName + HashedFileWriter.GZIP_EXTENSION);
+        assertTrue(Files.exists(gzipFile));
+        try (var is = new GZIPInputStream(Files.newInputStream(gzipFile))) {
+            assertArrayEquals(Files.readAllBytes(outputDir.resolve(fileName)), is.readAllBytes());
+        }
+
+        writer.setPrecompress(false);
+        assertEquals(fileName, writer.write("catalog-test", tree));
+        assertFalse(Files.exists(gzipFile));
+    }
+
+    @Test
+    public void testSmile() throws Exception {
+        var tree = jsonMapper.readTree("""
+                { "entries": [ { "name": "a", "kind": "shared" }, { "name": "b", "kind": "shared" } ] }
+                """);
+        var writer = new HashedFileWriter(jsonMapper, outputDir);
+        writer.setSmile(true);
+        var fileName = writer.write("catalog-test", tree);
+        var smileFile = outputDir.resolve(HashedFileWriter.getSmileFileName(fileName));
+        assertEquals(fileName.replace(".json", ".smile"), smileFile.getFileName().toString());
+        assertEquals(tree, new SmileMapper().readTree(Files.readAllBytes(smileFile)));
+
+        writer.setSmile(false);
+        assertEquals(fileName, writer.write("catalog-test", tree));
+        assertFalse(Files.exists(smileFile));
+    }
+}
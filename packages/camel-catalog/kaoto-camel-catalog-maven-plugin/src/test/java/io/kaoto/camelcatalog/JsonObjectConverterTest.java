@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.catalog.DefaultCamelCatalog;
+import org.apache.camel.catalog.Kind;
+import org.apache.camel.tooling.model.ComponentModel;
+import org.apache.camel.tooling.model.EipModel;
+import org.apache.camel.tooling.model.JsonMapper;
+import org.apache.camel.util.json.JsonArray;
+import org.apache.camel.util.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonObjectConverterTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final JsonObjectConverter converter = new JsonObjectConverter(jsonMapper);
+    private final DefaultCamelCatalog api = new DefaultCamelCatalog();
+
+    @Test
+    public void testComponentsMatchParsedJson() throws Exception {
+        for (var name : api.findComponentNames()) {
+            var model = (ComponentModel) api.model(Kind.component, name);
+            var expected = jsonMapper.readTree(JsonMapper.asJsonObject(model).toJson());
+            var actual = converter.asObjectNode(model);
+            assertEquals(expected, actual, name);
+            assertEquals(jsonMapper.writeValueAsString(expected), jsonMapper.writeValueAsString(actual), name);
+        }
+    }
+
+    @Test
+    public void testModelsMatchParsedJson() throws Exception {
+        for (var name : api.findModelNames()) {
+            var model = (EipModel) api.model(Kind.eip, name);
+            var expected = jsonMapper.readTree(JsonMapper.asJsonObject(model).toJson());
+            var actual = converter.asObjectNode(model);
+            assertEquals(expected, actual, name);
+            assertEquals(jsonMapper.writeValueAsString(expected), jsonMapper.writeValueAsString(actual), name);
+        }
+    }
+
+    @Test
+    public void testValueTypes() throws Exception {
+        var jsonObject = new JsonObject();
+        jsonObject.put("string", "a\"b/c\n");
+        jsonObject.put("int", 1);
+        jsonObject.put("smallLong", 2L);
+        jsonObject.put("long", Long.MAX_VALUE);
+        jsonObject.put("double", 1.5d);
+        jsonObject.put("wholeDouble", 3d);
+        jsonObject.put("float", 0.1f);
+        jsonObject.put("nan", Double.NaN);
+        jsonObject.put("decimal", new BigDecimal("12.50"));
+        jsonObject.put("boolean", true);
+        jsonObject.put("null", null);
+        jsonObject.put("enum", Kind.eip);
+        jsonObject.put("array", new JsonArray(List.of(1, "two", new JsonObject())));
+        jsonObject.put("primitives", new int[] { 1, 2 });
+        var expected = jsonMapper.readTree(jsonObject.toJson());
+        var actual = converter.asObjectNode(jsonObject);
+        assertEquals(expected, actual);
+        assertEquals(jsonMapper.writeValueAsString(expected), jsonMapper.writeValueAsString(actual));
+    }
+}
@@ -19,8 +19,11 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Paths;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class K8sSchemaProcessorTest {
@@ -46,4 +49,16 @@ public class K8sSchemaProcessorTest {
         var objectReference = (ObjectNode) jsonMapper.readTree(schemaMap.get("ObjectReference"));
         assertTrue(objectReference.withObject("/properties").has("fieldPath"));
     }
+
+    @Test
+    public void testStream() throws Exception {
+        var spec = Paths.get(getClass().getClassLoader().getResource("kubernetes-api-v1-openapi.json").toURI());
+        var streamed = K8sSchemaProcessor.stream(jsonMapper, spec, List.of(K8S_DEFINITIONS));
+        var definitions = streamed.getK8sDefinitions(List.of(K8S_DEFINITIONS));
+        assertEquals(processor.getK8sDefinitions(List.of(K8S_DEFINITIONS)), definitions);
+        var objectMeta = definitions.get("ObjectMeta");
+        assertTrue(objectMeta.withObject("/definitions").has("io.k8s.apimachinery.pkg.apis.meta.v1.ManagedFieldsEntry"));
+        assertFalse(objectMeta.toString().contains("x-kubernetes"));
+        assertTrue(K8sSchemaProcessor.stream(jsonMapper, spec, null).getK8sDefinitions(null).isEmpty());
+    }
 }
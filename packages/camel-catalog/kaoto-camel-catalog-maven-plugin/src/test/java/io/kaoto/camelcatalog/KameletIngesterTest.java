@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.JarURLConnection;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KameletIngesterTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testIngest() throws Exception {
+        var first = Files.writeString(tempDir.resolve("a.kamelet.yaml"), """
+                spec:
+                  definition:
+                    title: First
+                """);
+        var second = Files.writeString(tempDir.resolve("a.json"), """
+                { "spec": { "definition": { "title": "Second" } } }
+                """);
+        var invalidName = Files.writeString(tempDir.resolve("README"), "");
+        var broken = Files.writeString(tempDir.resolve("b.kamelet.yaml"), "spec: [");
+        var other = Files.writeString(tempDir.resolve("c.txt"), "");
+        var ingester = new KameletIngester(jsonMapper, yamlMapper);
+        var result = ingester.ingest(List.of(first, second, invalidName, broken, other));
+
+        assertEquals(List.of("a"), result.kamelets().properties().stream().map(Map.Entry::getKey).toList());
+        assertEquals("First", result.kamelets().at("/a/propertiesSchema/title").asText());
+        assertEquals(List.of(invalidName, broken), result.failures().stream().map(KameletIngester.Failure::file).toList());
+        assertEquals("Invalid file name: README", result.failures().get(0).error().getMessage());
+    }
+
+    @Test
+    public void testParallelIngestIsIdentical() throws Exception {
+        var url = Thread.currentThread().getContextClassLoader().getResource("kamelets");
+        var jar = Paths.get(((JarURLConnection) url.openConnection()).getJarFileURL().toURI());
+        try (var zipFs = FileSystems.newFileSystem(jar)) {
+            var files = Util.listMerged(List.of(zipFs.getPath("/kamelets"))).values().stream()
+                    .map(List::getLast)
+                    .toList();
+            var ingester = new KameletIngester(jsonMapper, yamlMapper);
+            var sequential = ingester.ingest(files);
+            ingester.setParallelism(4);
+            var parallel = ingester.ingest(files);
+            assertTrue(sequential.kamelets().size() > 100);
+            assertTrue(sequential.failures().isEmpty());
+            assertEquals(sequential.kamelets(), parallel.kamelets());
+            assertEquals(
+                    sequential.kamelets().properties().stream().map(Map.Entry::getKey).toList(),
+                    parallel.kamelets().properties().stream().map(Map.Entry::getKey).toList());
+        }
+    }
+}
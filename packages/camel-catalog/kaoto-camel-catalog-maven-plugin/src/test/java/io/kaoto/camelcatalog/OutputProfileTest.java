@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputProfileTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    public void testResolve() {
+        assertTrue(OutputProfile.resolve(OutputProfile.PRETTY, null).isPretty());
+        assertFalse(OutputProfile.resolve(OutputProfile.MINIFIED, null).isPretty());
+        assertTrue(OutputProfile.resolve(OutputProfile.UI_SLIM, null).hasRules("components"));
+        assertFalse(OutputProfile.resolve(OutputProfile.UI_SLIM, null).hasRules("models"));
+        var custom = new OutputProfile(OutputProfile.MINIFIED, true, List.of(), List.of());
+        assertSame(custom, OutputProfile.resolve(OutputProfile.MINIFIED, List.of(custom)));
+        assertThrows(IllegalArgumentException.class, () -> OutputProfile.resolve("non-existing", null));
+        var invalid = new OutputProfile("invalid", true, List.of("components/*/component"), List.of());
+        assertThrows(IllegalArgumentException.class, () -> OutputProfile.resolve("invalid", List.of(invalid)));
+    }
+
+    @Test
+    public void testStrip() throws Exception {
+        var catalog = jsonMapper.readTree("""
+                {
+                  "timer": { "component": { "name": "timer", "firstVersion": "1.0.0" },
+                             "properties": { "period": { "type": "integer", "javaType": "long", "description": "d" } } },
+                  "log": { "component": { "name": "log", "firstVersion": "1.1.0" },
+                           "list": [ { "a": 1 }, { "a": 2, "b": 3 } ] }
+                }
+                """);
+        var profile = new OutputProfile("test", false,
+                List.of("components:/*/component/firstVersion", "components:/*/properties/*", "*:/*/list/*/a"),
+                List.of("components:/*/properties/*/type"));
+        // stripped in place
+        assertSame(catalog, profile.apply("components", catalog));
+        assertEquals(jsonMapper.readTree("""
+                {
+                  "timer": { "component": { "name": "timer" },
+                             "properties": { "period": { "type": "integer" } } },
+                  "log": { "component": { "name": "log" },
+                           "list": [ { }, { "b": 3 } ] }
+                }
+                """), catalog);
+        var models = jsonMapper.readTree("""
+                { "timer": { "model": { "name": "timer", "firstVersion": "1.0.0" } } }
+                """);
+        assertEquals(models.deepCopy(), OutputProfile.resolve(OutputProfile.UI_SLIM, null).apply("models", models));
+    }
+
+    @Test
+    public void testStripWithoutKeptDescendants() throws Exception {
+        var catalog = jsonMapper.readTree("""
+                { "a": { "properties": { "x": { "description": "d" } } } }
+                """);
+        var profile = new OutputProfile("test", false,
+                List.of("models:/*/properties/*"), List.of("models:/*/properties/*/type"));
+        assertEquals(jsonMapper.readTree("""
+                { "a": { "properties": { } } }
+                """), profile.apply("models", catalog));
+    }
+}
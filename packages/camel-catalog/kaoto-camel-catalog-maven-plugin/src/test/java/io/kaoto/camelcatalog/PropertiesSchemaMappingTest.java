@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertiesSchemaMappingTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final PropertiesSchemaMapping mapping = new PropertiesSchemaMapping(jsonMapper);
+
+    @Test
+    public void testIsDerived() {
+        assertTrue(mapping.isDerived("components", "timer"));
+        assertTrue(mapping.isDerived("models", "from"));
+        assertFalse(mapping.isDerived("models", "to"));
+        assertFalse(mapping.isDerived("patterns", "to"));
+    }
+
+    @Test
+    public void testDerive() throws Exception {
+        var properties = (ObjectNode) jsonMapper.readTree("""
+                {
+                  "delay": { "displayName": "Delay", "type": "duration", "required": true, "defaultValue": "1000" },
+                  "names": { "type": "array", "defaultValue": "a" },
+                  "mode": { "type": "object", "enum": [ "a", "b" ] },
+                  "bean": { "type": "object", "javaType": "com.example.Bean", "deprecated": false },
+                  "map": { "type": "object", "javaType": "java.util.Map<String, Object>" }
+                }
+                """);
+        assertEquals(jsonMapper.readTree("""
+                {
+                  "$schema": "http://json-schema.org/draft-07/schema#",
+                  "type": "object",
+                  "properties": {
+                    "delay": { "title": "Delay", "$comment": "duration", "type": "string", "default": "1000" },
+                    "names": { "type": "array", "default": [ "a" ], "items": { "type": "string" } },
+                    "mode": { "type": "string", "enum": [ "a", "b" ] },
+                    "bean": { "type": "string", "deprecated": false, "$comment": "class:com.example.Bean" },
+                    "map": { "type": "object" }
+                  },
+                  "required": [ "delay" ]
+                }
+                """), mapping.derive(properties));
+    }
+}
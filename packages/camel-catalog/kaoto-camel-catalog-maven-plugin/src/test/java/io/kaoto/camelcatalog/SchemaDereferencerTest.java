@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaDereferencerTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private ObjectNode parse(String json) throws Exception {
+        return (ObjectNode) jsonMapper.readTree(json);
+    }
+
+    @Test
+    public void testDereference() throws Exception {
+        var schema = parse("""
+                { "type": "object", "properties": {
+                    "a": { "$ref": "#/definitions/a", "title": "A" },
+                    "steps": { "$ref": "#/definitions/org.apache.camel.model.ProcessorDefinition" } },
+                  "definitions": {
+                    "a": { "type": "object", "properties": { "b": { "$ref": "#/definitions/b" } } },
+                    "b": { "type": "string" } } }
+                """);
+        var original = schema.deepCopy();
+        assertEquals(parse("""
+                { "type": "object", "properties": {
+                    "a": { "type": "object", "properties": { "b": { "type": "string" } }, "title": "A" },
+                    "steps": { "$ref": "#/definitions/org.apache.camel.model.ProcessorDefinition" } } }
+                """), SchemaDereferencer.dereference(schema));
+        assertEquals(original, schema);
+    }
+
+    @Test
+    public void testRecursive() throws Exception {
+        var schema = parse("""
+                { "properties": { "node": { "$ref": "#/definitions/node" } },
+                  "definitions": {
+                    "node": { "properties": { "children": { "type": "array", "items": { "$ref": "#/definitions/node" } },
+                                              "leaf": { "$ref": "#/definitions/leaf" } } },
+                    "leaf": { "type": "string" } } }
+                """);
+        assertEquals(parse("""
+                { "properties": { "node": { "properties": {
+                    "children": { "type": "array", "items": { "$ref": "#/definitions/node", "$comment": "recursive" } },
+                    "leaf": { "type": "string" } } } },
+                  "definitions": {
+                    "node": { "properties": {
+                      "children": { "type": "array", "items": { "$ref": "#/definitions/node", "$comment": "recursive" } },
+                      "leaf": { "type": "string" } } } } }
+                """), SchemaDereferencer.dereference(schema));
+    }
+
+    @Test
+    public void testRootRef() throws Exception {
+        var schema = parse("""
+                { "type": "object", "$ref": "#/definitions/from",
+                  "properties": { "uri": { "title": "URI" }, "parameters": { "type": "object" } },
+                  "required": [ "uri", "parameters" ],
+                  "definitions": {
+                    "from": { "type": "object", "properties": { "uri": { "type": "string" }, "steps": { "type": "array" } },
+                              "required": [ "steps", "uri" ] } } }
+                """);
+        // the keywords of the root refine the definition rather than replace its keywords wholesale
+        assertEquals(parse("""
+                { "type": "object",
+                  "properties": { "uri": { "type": "string", "title": "URI" }, "steps": { "type": "array" },
+                                  "parameters": { "type": "object" } },
+                  "required": [ "steps", "uri", "parameters" ] }
+                """), SchemaDereferencer.dereference(schema));
+    }
+}
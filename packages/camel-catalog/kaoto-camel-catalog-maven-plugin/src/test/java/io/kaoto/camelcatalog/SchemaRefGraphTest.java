@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaRefGraphTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectNode definitions;
+    private final SchemaRefGraph refGraph;
+
+    public SchemaRefGraphTest() throws Exception {
+        definitions = (ObjectNode) jsonMapper.readTree("""
+                {
+                  "a": { "properties": { "b": { "$ref": "#/definitions/b" }, "c": { "$ref": "#/definitions/c" } } },
+                  "b": { "items": [ { "$ref": "#/definitions/d" }, { "$ref": "#/definitions/a" } ] },
+                  "c": { "properties": { "self": { "$ref": "#/definitions/c" }, "x": { "$ref": "#/definitions/x" } } },
+                  "d": { "type": "string" },
+                  "x": { "properties": { "d": { "$ref": "#/definitions/d" } } }
+                }
+                """);
+        refGraph = new SchemaRefGraph(
+                name -> definitions.withObject("/" + name),
+                refParent -> refParent.get("$ref").asText().replace("#/definitions/", ""));
+    }
+
+    @Test
+    public void testGetReferences() {
+        assertEquals(List.of("b", "c"), refGraph.getReferences("a"));
+        assertEquals(List.of("d", "a"), refGraph.getReferences("b"));
+        assertEquals(List.of("c", "x"), refGraph.getReferences("c"));
+        assertTrue(refGraph.getReferences("d").isEmpty());
+    }
+
+    @Test
+    public void testResolveClosure() throws Exception {
+        var schema = (ObjectNode) jsonMapper.readTree("""
+                { "properties": { "a": { "$ref": "#/definitions/a" } } }
+                """);
+        assertEquals(List.of("a", "b", "c", "d", "x"), List.copyOf(refGraph.resolveClosure(schema, name -> false)));
+        assertEquals(List.of("a", "b", "d"), List.copyOf(refGraph.resolveClosure(schema, "c"::equals)));
+    }
+
+    @Test
+    public void testPopulateDefinitions() throws Exception {
+        var schema = (ObjectNode) jsonMapper.readTree("""
+                { "properties": { "c": { "$ref": "#/definitions/c" } }, "definitions": { "x": {} } }
+                """);
+        refGraph.populateDefinitions(schema, name -> false);
+        assertEquals(List.of("x", "c"), schema.withObject("/definitions").properties().stream()
+                .map(Map.Entry::getKey).toList());
+
+        var rootRef = (ObjectNode) jsonMapper.readTree("""
+                { "$ref": "#/definitions/d", "properties": { "x": { "$ref": "#/definitions/x" } } }
+                """);
+        refGraph.populateDefinitions(rootRef, name -> false);
+        assertEquals(List.of("d", "x"), rootRef.withObject("/definitions").properties().stream()
+                .map(Map.Entry::getKey).toList());
+
+        var noRef = (ObjectNode) jsonMapper.readTree("""
+                { "type": "string" }
+                """);
+        refGraph.populateDefinitions(noRef, name -> false);
+        assertFalse(noRef.has("definitions"));
+    }
+}
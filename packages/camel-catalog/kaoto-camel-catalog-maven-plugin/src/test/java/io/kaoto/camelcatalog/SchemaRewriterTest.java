@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaRewriterTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    public void testRewrite() throws Exception {
+        var schema = jsonMapper.readTree("""
+                {
+                  "type": "object",
+                  "x-kubernetes-preserve-unknown-fields": true,
+                  "properties": {
+                    "ports": { "type": "array", "items": { "$ref": "#/components/schemas/Port" },
+                               "x-kubernetes-list-map-keys": [ { "$ref": "#/components/schemas/Dropped" } ] },
+                    "name": { "type": "string" }
+                  },
+                  "anyOf": [ { "$ref": "#/definitions/Kept", "x-kubernetes-int-or-string": true } ]
+                }
+                """);
+        var untouched = schema.at("/properties/name");
+        var rewritten = new SchemaRewriter(List.of(
+                K8sSchemaProcessor.removeKubernetesKeywords(),
+                SchemaRewriter.rewriteRefs(ref -> ref.replace("#/components/schemas/", "#/definitions/"))))
+                .rewrite(schema);
+        assertSame(schema, rewritten);
+        assertEquals(jsonMapper.readTree("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "ports": { "type": "array", "items": { "$ref": "#/definitions/Port" } },
+                    "name": { "type": "string" }
+                  },
+                  "anyOf": [ { "$ref": "#/definitions/Kept" } ]
+                }
+                """), rewritten);
+        assertSame(untouched, rewritten.at("/properties/name"));
+    }
+}
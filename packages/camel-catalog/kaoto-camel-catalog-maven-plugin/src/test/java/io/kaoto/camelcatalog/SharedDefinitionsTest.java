@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2024 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kaoto.camelcatalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedDefinitionsTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private ObjectNode parse(String json) throws Exception {
+        return (ObjectNode) jsonMapper.readTree(json);
+    }
+
+    @Test
+    public void testExternalize() throws Exception {
+        var first = parse("""
+                { "$ref": "#/definitions/a", "definitions": {
+                    "a": { "properties": { "b": { "$ref": "#/definitions/b" } } },
+                    "b": { "type": "string" },
+                    "only": { "type": "boolean" } } }
+                """);
+        var second = parse("""
+                { "properties": { "a": { "$ref": "#/definitions/a" } }, "definitions": {
+                    "a": { "properties": { "b": { "$ref": "#/definitions/b" } } },
+                    "b": { "type": "string" } } }
+                """);
+        var library = SharedDefinitions.collect(jsonMapper, List.of(first, second));
+        assertEquals(parse("""
+                { "$schema": "http://json-schema.org/draft-07/schema#", "definitions": {
+                    "a": { "properties": { "b": { "$ref": "#/definitions/b" } } },
+                    "b": { "type": "string" } } }
+                """), library.toSchema(jsonMapper));
+
+        assertEquals(2, library.externalize(first, "shared.json"));
+        assertEquals(parse("""
+                { "$ref": "shared.json#/definitions/a", "definitions": { "only": { "type": "boolean" } } }
+                """), first);
+        assertEquals(2, library.externalize(second, "shared.json"));
+        assertEquals(parse("""
+                { "properties": { "a": { "$ref": "shared.json#/definitions/a" } } }
+                """), second);
+    }
+
+    @Test
+    public void testKeepDefinitionsReferringToDifferentContent() throws Exception {
+        var schemas = List.of(
+                parse("""
+                        { "definitions": { "a": { "$ref": "#/definitions/b" }, "b": { "type": "string" } } }
+                        """),
+                parse("""
+                        { "definitions": { "a": { "$ref": "#/definitions/b" }, "b": { "type": "string" } } }
+                        """),
+                parse("""
+                        { "definitions": { "a": { "$ref": "#/definitions/b" }, "b": { "type": "integer" } } }
+                        """),
+                parse("""
+                        { "definitions": { "c": { "$ref": "#/definitions/missing" } } }
+                        """),
+                parse("""
+                        { "definitions": { "c": { "$ref": "#/definitions/missing" } } }
+                        """));
+        var library = SharedDefinitions.collect(jsonMapper, schemas);
+        // "c" refers to a definition which is nowhere, the library must be self-contained
+        assertFalse(library.toSchema(jsonMapper).withObject("/definitions").has("c"));
+        assertEquals(0, library.externalize(schemas.get(3), "shared.json"));
+
+        // "a" is the same, but it refers to a different "b"
+        var different = schemas.get(2);
+        var expected = different.deepCopy();
+        assertEquals(0, library.externalize(different, "shared.json"));
+        assertEquals(expected, different);
+    }
+}
@@ -16,18 +16,27 @@
 package io.kaoto.camelcatalog;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.math.BigInteger;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class UtilTest {
     private final List<String> testFiles = List.of("testfile1.txt", "testfile2.txt");
 
+    @TempDir
+    Path tempDir;
+
     @Test
     public void testGenerateHash() throws Exception {
         var fileHashMap = new HashMap<String, String>();
@@ -88,4 +97,33 @@ public class UtilTest {
             assertNotNull(checksum);
         }
     }
+
+    @Test
+    public void testListMerged() throws Exception {
+        var jar = tempDir.resolve("kamelets.jar");
+        try (var zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (var entry : Map.of("kamelets/b.yaml", "jar b", "kamelets/a.yaml", "jar a").entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes());
+            }
+            zip.putNextEntry(new ZipEntry("kamelets/boundaries/"));
+        }
+        var dir = Files.createDirectories(tempDir.resolve("kamelets"));
+        Files.writeString(dir.resolve("b.yaml"), "dir b");
+        Files.createDirectories(dir.resolve("boundaries"));
+        try (var zipFs = FileSystems.newFileSystem(jar)) {
+            var merged = Util.listMerged(List.of(zipFs.getPath("/kamelets"), dir, tempDir.resolve("missing")));
+            assertEquals(List.of("a.yaml", "b.yaml", "boundaries"), List.copyOf(merged.keySet()));
+            assertEquals("jar a", Files.readString(merged.get("a.yaml").getLast()));
+            assertEquals(List.of("jar b", "dir b"),
+                    merged.get("b.yaml").stream().map(path -> assertDoesNotThrow(() -> Files.readString(path))).toList());
+            assertEquals(2, merged.get("boundaries").size());
+            assertTrue(merged.get("boundaries").stream().allMatch(Files::isDirectory));
+
+            assertEquals(merged.get("b.yaml").getFirst(), Util.getShadowedArchiveEntry(merged.get("b.yaml")));
+            assertNull(Util.getShadowedArchiveEntry(merged.get("a.yaml")));
+            // the directories are merged rather than shadowed
+            assertNull(Util.getShadowedArchiveEntry(merged.get("boundaries")));
+        }
+    }
 }